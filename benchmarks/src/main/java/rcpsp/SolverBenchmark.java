@@ -0,0 +1,168 @@
+package rcpsp;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMH benchmarks of the hot paths of the genetic algorithm, one instance of
+ * j30, j60 and j120 each. Build and run from the repository root, the GC
+ * profiler reports the allocation rate and bytes per operation:
+ * <pre>
+ * mvn -B package
+ * java -jar benchmarks/target/benchmarks.jar -prof gc
+ * </pre>
+ * The instances are resolved against the working directory, -p instance=...
+ * selects others. Crossovers return their child list to the pool of the
+ * context and mutations their solution, like the genetic algorithm does, so
+ * the allocation rate is the one of the steady state.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SolverBenchmark {
+  private static final long Seed = 85838798;
+
+  @Param({"j30/J301_1.RCP", "j60/J6010_5.RCP", "j120/X10_7.RCP"})
+  public String instance;
+
+  private Path path;
+  private Context context;
+  private Population population;
+  private Population evolving;
+  private Solution father;
+  private Solution mother;
+  private int[] activityList;
+  private int[] shuffled;
+  private int[] repaired;
+  private ArrayList<Integer> swapped;
+  private Solution[] children;
+  private int nextChild;
+  private long generation;
+
+  @Setup(Level.Trial)
+  public void setup() {
+    path = Paths.get(instance);
+    context = new Context(Io.readInstance(path), Seed);
+    final int capacity = context.options.populationCapacity;
+
+    population = Solver.createInitialPopulation(context, capacity, capacity);
+    evolving = Solver.createInitialPopulation(context, context.options.initialPopulation, capacity);
+    father = population.get(0);
+    mother = population.get(1);
+    activityList = Solver.transformSolutionIntoActivityList(father);
+    shuffled = rcpsp.Benchmark.shuffle(new int[context.instance.n()], new Random(Seed));
+    repaired = new int[shuffled.length];
+    swapped = new ArrayList<>(shuffled.length);
+
+    // NB: Children are added again once evicted, so most of them are new.
+    children = new Solution[64];
+    for (int i = 0; i < children.length; ++i) {
+      children[i] = Solver.crossover(father, mother, context, 1).copy();
+    }
+  }
+
+  @Benchmark
+  public Instance readInstance() {
+    return Io.readInstance(path);
+  }
+
+  @Benchmark
+  public int ess() {
+    final Solution solution = Solver.ess(activityList, context);
+    final int makespan = solution.getMakespan();
+    // NB: The solution keeps the list, which must not go back to the pool.
+    solution.setDecodeOrder(null);
+    context.recycle(solution);
+    return makespan;
+  }
+
+  @Benchmark
+  public int transformSolutionIntoActivityList() {
+    return Solver.transformSolutionIntoActivityList(father)[0];
+  }
+
+  @Benchmark
+  public int onePointCO() {
+    final int[] child = Solver.onePointCO(father, mother, context);
+    context.recycle(child);
+    return child[0];
+  }
+
+  @Benchmark
+  public int twoPointCO() {
+    final int[] child = Solver.twoPointCO(father, mother, context);
+    context.recycle(child);
+    return child[0];
+  }
+
+  @Benchmark
+  public int uniformCO() {
+    final int[] child = Solver.uniformCO(father, mother, context);
+    context.recycle(child);
+    return child[0];
+  }
+
+  /// Repair of a shuffled list, the work of a crossover child in the worst case.
+  @Benchmark
+  public int repair() {
+    System.arraycopy(shuffled, 0, repaired, 0, shuffled.length);
+    context.getPrecedenceRepair().repair(repaired);
+    return repaired[0];
+  }
+
+  /// The swap-based repair PrecedenceRepair replaced, on the same list.
+  @Benchmark
+  public int repairSwap() {
+    swapped.clear();
+    for (int job : shuffled) {
+      swapped.add(job);
+    }
+    rcpsp.Benchmark.repairSwap(swapped, context.instance);
+    return swapped.get(0);
+  }
+
+  @Benchmark
+  public IntPair getBest() {
+    return TournamentSelection.getBest(population, context);
+  }
+
+  @Benchmark
+  public int mutate() {
+    final Solution mutated = RandomMutation.mutate(father, context);
+    final int makespan = mutated.getMakespan();
+    if (mutated != father) {
+      context.recycle(mutated);
+    }
+    return makespan;
+  }
+
+  /// Adding a child replaces the sort and truncation of Solver.selection.
+  @Benchmark
+  public Solution offer() {
+    return population.offer(children[nextChild++ & (children.length - 1)]);
+  }
+
+  @Benchmark
+  public int nextGeneration() {
+    return Solver.nextGeneration(evolving, context, generation++);
+  }
+}
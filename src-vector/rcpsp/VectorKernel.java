@@ -0,0 +1,42 @@
+package rcpsp;
+
+import jdk.incubator.vector.IntVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * ProfileKernel on the incubating Vector API: a whole window of segments is
+ * compared against the demand of one resource per vector operation.
+ * <p>
+ * Build and run with the module enabled, e.g.
+ * <pre>
+ * javac -d out src/rcpsp/*.java
+ * javac --add-modules jdk.incubator.vector -cp out -d out src-vector/rcpsp/VectorKernel.java
+ * java --add-modules jdk.incubator.vector -cp out rcpsp.Solver ... --decoder simd
+ * </pre>
+ */
+public class VectorKernel implements ProfileKernel {
+  private static final VectorSpecies<Integer> Species = IntVector.SPECIES_PREFERRED;
+
+  @Override
+  public int firstConflict(int[][] available, int[] demand, int from, int to) {
+    for (int seg = from; seg < to; seg += Species.length()) {
+      VectorMask<Integer> window = Species.indexInRange(seg, to);
+      VectorMask<Integer> conflict = Species.maskAll(false);
+      for (int k = 0; k < demand.length; ++k) {
+        IntVector free = IntVector.fromArray(Species, available[k], seg, window);
+        conflict = conflict.or(free.compare(VectorOperators.LT, demand[k], window));
+      }
+      if (conflict.anyTrue()) {
+        return seg + conflict.firstTrue();
+      }
+    }
+    return to;
+  }
+
+  @Override
+  public String toString() {
+    return "vector " + Species.length() + "x32";
+  }
+}
@@ -0,0 +1,203 @@
+package rcpsp;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Runs the experiments of an auto_eval.py configuration inside one JVM. Every
+ * program call is run on every instance with every seed; the runs are spread
+ * over a fixed thread pool and the results are written as CSV table, one row
+ * per run followed by one row with the means per program call and instance.
+ * Metrics and checkpoint files of the calls must differ between runs.
+ * <p>
+ * usage: java rcpsp.BatchRunner <config-path> [--output <csv-path>] [--threads <n>]
+ */
+public class BatchRunner {
+
+  private static final String Usage = "usage: java rcpsp.BatchRunner <config-path> [--output <csv-path>] [--threads <n>]";
+
+  /**
+   * A single solve of the experiment.
+   */
+  static class Run {
+    int call;
+    String instanceName;
+    long seed;
+    Result result;
+    boolean valid;
+  }
+
+  /**
+   * Turn a program call of the configuration into solver arguments. Everything
+   * after the class name rcpsp.Solver is taken, the placeholders %inputfile%
+   * and %seed% are replaced.
+   */
+  static String[] solverArguments(String programCall, String inputFile, long seed) {
+    final List<String> tokens = Arrays.asList(programCall.trim().split("\\s+"));
+    final int index = tokens.indexOf("rcpsp.Solver");
+    if (index < 0) {
+      throw new IllegalArgumentException("Program call does not run rcpsp.Solver: " + programCall);
+    }
+
+    final String[] args = new String[tokens.size() - index - 1];
+    for (int i = 0; i < args.length; ++i) {
+      args[i] = tokens.get(index + 1 + i)
+          .replace("%inputfile%", inputFile)
+          .replace("%seed%", Long.toString(seed));
+    }
+    return args;
+  }
+
+  @SuppressWarnings("unchecked")
+  public static void main(String[] args) throws IOException, InterruptedException {
+    if (args.length < 1 || args.length % 2 != 1) {
+      System.out.println(Usage);
+      return;
+    }
+
+    Path output = Paths.get("results.csv");
+    int threads = Runtime.getRuntime().availableProcessors();
+    for (int i = 1; i < args.length; i += 2) {
+      if (args[i].equals("--output")) {
+        output = Paths.get(args[i + 1]);
+      } else if (args[i].equals("--threads")) {
+        try {
+          threads = Integer.parseInt(args[i + 1]);
+        } catch (NumberFormatException e) {
+          threads = 0;
+        }
+        if (threads < 1) {
+          System.out.println(Usage);
+          return;
+        }
+      } else {
+        System.out.println(Usage);
+        return;
+      }
+    }
+
+    final Map<String, Object> config = (Map<String, Object>) Json.parse(Files.readString(Paths.get(args[0])));
+    final List<Object> files = (List<Object>) config.get("benchmark_files");
+    final List<Object> seeds = (List<Object>) config.get("seeds");
+    final List<Object> calls = (List<Object>) config.get("program_calls");
+
+    // every instance is read once, in parallel, and shared by all of its runs
+    final Corpus instances = new Corpus();
+    final List<Path> paths = new ArrayList<>();
+    for (Object file : files) {
+      paths.add(Paths.get((String) file));
+    }
+    instances.preload(paths);
+
+    // NB: The runs share the program calls, so files they write must be made
+    // unique with %seed% or %inputfile%, concurrent runs would clobber them.
+    final Set<Path> outputs = new HashSet<>();
+    outputs.add(output.toAbsolutePath().normalize());
+    final List<Options> runOptions = new ArrayList<>();
+    for (int c = 0; c < calls.size(); ++c) {
+      for (Object file : files) {
+        for (Object seed : seeds) {
+          final Options options = Options.parse(solverArguments((String) calls.get(c), (String) file,
+              ((Number) seed).longValue()));
+          for (String written : new String[] {options.metricsPath, options.checkpointPath}) {
+            if (written != null && !outputs.add(Paths.get(written).toAbsolutePath().normalize())) {
+              throw new IllegalArgumentException("Program call " + c + " writes " + written
+                  + " in more than one run, use %seed% and %inputfile% in the path");
+            }
+          }
+          runOptions.add(options);
+        }
+      }
+    }
+
+    final ExecutorService executor = Executors.newFixedThreadPool(threads);
+    final List<Future<Run>> futures = new ArrayList<>();
+    for (int c = 0, r = 0; c < calls.size(); ++c) {
+      for (Object file : files) {
+        for (Object seed : seeds) {
+          final int call = c;
+          final String path = (String) file;
+          final long s = ((Number) seed).longValue();
+          final Options options = runOptions.get(r++);
+          futures.add(executor.submit(() -> {
+            final Instance instance = instances.get(Paths.get(path));
+            final Run run = new Run();
+            run.call = call;
+            run.instanceName = Paths.get(path).getFileName().toString().split("\\.")[0];
+            run.seed = s;
+            run.result = Solver.run(instance, options);
+            run.valid = Solver.checkSolution(run.result.solution, instance);
+            return run;
+          }));
+        }
+      }
+    }
+    executor.shutdown();
+
+    final List<Run> runs = new ArrayList<>(futures.size());
+    try {
+      for (Future<Run> future : futures) {
+        runs.add(future.get());
+      }
+    } catch (ExecutionException e) {
+      executor.shutdownNow();
+      throw new RuntimeException(e.getCause());
+    }
+
+    writeTable(runs, output);
+  }
+
+  private static void writeTable(List<Run> runs, Path path) throws IOException {
+    try (final BufferedWriter writer = Files.newBufferedWriter(path, Charset.defaultCharset());
+         final PrintWriter printer = new PrintWriter(writer)) {
+
+      printer.println("call,instance,seed,makespan,lower_bound,generations,time_to_best_ms,valid");
+      for (Run run : runs) {
+        printer.format(Locale.ROOT, "%d,%s,%d,%d,%d,%d,%d,%b%n", run.call, run.instanceName, run.seed,
+            run.result.getMakespan(), run.result.lowerBound, run.result.generations, run.result.timeToBest,
+            run.valid);
+      }
+
+      // runs are grouped by call and instance in submission order
+      for (int begin = 0; begin < runs.size(); ) {
+        final Run first = runs.get(begin);
+        int end = begin;
+        double makespan = 0;
+        double generations = 0;
+        double timeToBest = 0;
+        double valid = 0;
+        while (end < runs.size() && runs.get(end).call == first.call
+            && runs.get(end).instanceName.equals(first.instanceName)) {
+          final Run run = runs.get(end++);
+          makespan += run.result.getMakespan();
+          generations += run.result.generations;
+          timeToBest += run.result.timeToBest;
+          valid += run.valid ? 1 : 0;
+        }
+        final int count = end - begin;
+        final String line = String.format(Locale.ROOT, "%d,%s,mean,%.3f,%d,%.1f,%.1f,%.3f", first.call,
+            first.instanceName, makespan / count, first.result.lowerBound, generations / count,
+            timeToBest / count, valid / count);
+        printer.println(line);
+        System.out.println(line);
+        begin = end;
+      }
+    }
+  }
+}
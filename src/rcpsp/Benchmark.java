@@ -0,0 +1,353 @@
+package rcpsp;
+
+import java.io.BufferedReader;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.function.IntSupplier;
+
+/**
+ * Micro benchmarks of the hot paths of the genetic algorithm. Every operation
+ * is run for a warmup period and then measured for a fixed time; the report
+ * lists time and allocated bytes per operation and the allocation rate.
+ * <p>
+ * The JMH benchmarks in the benchmarks module are the reference. This harness
+ * needs nothing but javac, for machines without the Maven dependencies, and
+ * covers the corpus and decoder comparisons besides.
+ * <p>
+ * With --max-alloc the run fails if a generation of the genetic algorithm
+ * allocates more than the given number of bytes on any instance.
+ * <p>
+ * usage: java rcpsp.Benchmark [--time <ms>] [--max-alloc <bytes>] [--corpus <directory>] [--decoders <directory>]
+ * [instance-path ...]
+ */
+public class Benchmark {
+  private static final String[] DefaultInstances = {
+      "j30/J301_1.RCP", "j60/J6010_5.RCP", "j120/X10_7.RCP", "j120/X55_10.RCP"
+  };
+  private static final long Seed = 85838798;
+
+  private static final com.sun.management.ThreadMXBean threadBean =
+      (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+  private static long measureTime = 1000;
+
+  /// Allowed bytes per generation, negative if not checked.
+  private static long maxAllocation = -1;
+  private static boolean allocationExceeded;
+
+  /// Keeps the results of the operations alive.
+  private static int sink;
+
+  /**
+   * Measure a single operation and print one line of the report.
+   *
+   * @param instanceName name of the instance
+   * @param name         name of the operation
+   * @param operation    operation to measure, returns any value depending on its work
+   * @return allocated bytes per operation
+   */
+  static double measure(String instanceName, String name, IntSupplier operation) {
+    // warmup
+    run(operation, measureTime / 2);
+
+    final long threadId = Thread.currentThread().getId();
+    final long bytesBefore = threadBean.getThreadAllocatedBytes(threadId);
+    final long startTime = System.nanoTime();
+    final long ops = run(operation, measureTime);
+    final long elapsed = System.nanoTime() - startTime;
+    final long bytes = threadBean.getThreadAllocatedBytes(threadId) - bytesBefore;
+
+    System.out.printf("%-12s %-24s %12.1f ns/op %12.1f B/op %10.1f MB/s%n",
+        instanceName, name, (double) elapsed / ops, (double) bytes / ops, bytes * 1000.0 / elapsed);
+    return (double) bytes / ops;
+  }
+
+  private static long run(IntSupplier operation, long millis) {
+    final long end = System.nanoTime() + millis * 1_000_000;
+    long ops = 0;
+    do {
+      // check the clock only every few operations
+      for (int i = 0; i < 16; ++i) {
+        sink += operation.getAsInt();
+      }
+      ops += 16;
+    } while (System.nanoTime() < end);
+    return ops;
+  }
+
+  /**
+   * Run all benchmarks on one instance.
+   *
+   * @param path path to the instance
+   */
+  static void benchmark(Path path) {
+    final String name = path.getFileName().toString();
+    final Instance instance = Io.readInstance(path);
+    final Context context = new Context(instance, Seed);
+    final int capacity = context.options.populationCapacity;
+
+    final Population population = Solver.createInitialPopulation(context, capacity, capacity);
+    final Solution father = population.get(0);
+    final Solution mother = population.get(1);
+    final int[] activityList = Solver.transformSolutionIntoActivityList(father);
+
+    measure(name, "Io.readInstance", () -> Io.readInstance(path).n());
+    measure(name, "readInstance (split)", () -> readInstanceSplit(path).n());
+    measure(name, "Solver.ess", () -> Solver.ess(activityList, context).getMakespan());
+    measure(name, "ParallelSgs.decode", () -> ParallelSgs.decode(activityList, context).getMakespan());
+    measure(name, "SimdSgs.decode (" + Context.getProfileKernel() + ")",
+        () -> SimdSgs.decode(activityList, context).getMakespan());
+    measure(name, "transformSolution", () -> Solver.transformSolutionIntoActivityList(father)[0]);
+    measure(name, "onePointCO", () -> Solver.crossover(father, mother, context, 0).getMakespan());
+    measure(name, "twoPointCO", () -> Solver.crossover(father, mother, context, 1).getMakespan());
+    measure(name, "uniformCO", () -> Solver.crossover(father, mother, context, 2).getMakespan());
+    measure(name, "RandomMutation.mutate", () -> RandomMutation.mutate(father, context).getMakespan());
+    final int[] shuffled = shuffle(new int[instance.n()], new Random(Seed));
+    final int[] repaired = new int[shuffled.length];
+    measure(name, "PrecedenceRepair.repair", () -> {
+      System.arraycopy(shuffled, 0, repaired, 0, shuffled.length);
+      context.getPrecedenceRepair().repair(repaired);
+      return repaired[0];
+    });
+    final ArrayList<Integer> swapped = new ArrayList<>(shuffled.length);
+    measure(name, "repair (swap)", () -> {
+      swapped.clear();
+      for (int job : shuffled) {
+        swapped.add(job);
+      }
+      repairSwap(swapped, instance);
+      return swapped.get(0);
+    });
+    measure(name, "TournamentSel.getBest", () -> TournamentSelection.getBest(population, context).a);
+    final Population evolving = Solver.createInitialPopulation(context, context.options.initialPopulation, capacity);
+    final long[] generation = {0};
+    // NB: Children and evicted members are recycled, the steady state should hardly allocate.
+    final double generationBytes =
+        measure(name, "Solver.nextGeneration", () -> Solver.nextGeneration(evolving, context, generation[0]++));
+    if (maxAllocation >= 0 && generationBytes > maxAllocation) {
+      System.out.printf("%-12s allocation target of %d B per generation exceeded%n", name, maxAllocation);
+      allocationExceeded = true;
+    }
+    final Solution[] children = new Solution[64];
+    for (int i = 0; i < children.length; ++i) {
+      children[i] = Solver.crossover(father, mother, context, 1);
+    }
+    final int[] next = {0};
+    measure(name, "Population.add", () -> {
+      // NB: Children are added again once evicted, so most of them are new.
+      population.add(children[next[0]++ & (children.length - 1)]);
+      return population.size();
+    });
+  }
+
+  /**
+   * Compare reading a whole directory of instances with the line splitting
+   * reader, the byte parser and the parallel corpus loader.
+   *
+   * @param directory directory of instances
+   */
+  static void benchmarkCorpus(Path directory) {
+    final String name = directory.getFileName().toString();
+    final List<Path> paths = Corpus.list(directory);
+
+    measure(name, "corpus split", () -> {
+      int jobs = 0;
+      for (Path path : paths) {
+        jobs += readInstanceSplit(path).n();
+      }
+      return jobs;
+    });
+    measure(name, "corpus readInstance", () -> {
+      int jobs = 0;
+      for (Path path : paths) {
+        jobs += Io.readInstance(path).n();
+      }
+      return jobs;
+    });
+    // NB: B/op only counts the allocations of the benchmark thread.
+    measure(name, "Corpus.load", () -> Corpus.load(directory).size());
+  }
+
+  /**
+   * Compare the decoders as random search on every instance of a directory:
+   * each decoder gets the same random precedence feasible lists for the same
+   * CPU time. Reports decodes per CPU-second, the mean makespan of the decoded
+   * lists and the mean gap of the best makespan to the lower bound.
+   *
+   * @param directory directory of instances
+   */
+  static void compareDecoders(Path directory) {
+    final String name = directory.getFileName().toString();
+    final Corpus corpus = Corpus.load(directory);
+    final List<Path> paths = Corpus.list(directory);
+    final String[] names = {"serial", "parallel"};
+    final Decoder[] decoders = {Decoder.Serial, Decoder.Parallel};
+    final long budget = measureTime * 1_000_000 / 50;
+
+    final long[] decodes = new long[decoders.length];
+    final long[] cpuNanos = new long[decoders.length];
+    final double[] makespanSum = new double[decoders.length];
+    final double[] gapSum = new double[decoders.length];
+    final int[] wins = new int[decoders.length];
+    for (Path path : paths) {
+      final Instance instance = corpus.get(path);
+      final Context context = new Context(instance, Seed);
+      final int lowerBound = InstanceAnalysis.lowerBound(instance);
+      final int[] best = new int[decoders.length];
+      for (int d = 0; d < decoders.length; ++d) {
+        final Random rng = new Random(Seed);
+        final int[] list = new int[instance.n()];
+        best[d] = Integer.MAX_VALUE;
+        double sum = 0;
+        long count = 0;
+        final long start = threadBean.getCurrentThreadCpuTime();
+        long elapsed;
+        do {
+          shuffle(list, rng);
+          context.getPrecedenceRepair().repair(list);
+          final int makespan = decoders[d].decode(list, context).getMakespan();
+          best[d] = Math.min(best[d], makespan);
+          sum += makespan;
+          ++count;
+          elapsed = threadBean.getCurrentThreadCpuTime() - start;
+        } while (elapsed < budget);
+        decodes[d] += count;
+        cpuNanos[d] += elapsed;
+        makespanSum[d] += sum / count;
+        gapSum[d] += (double) (best[d] - lowerBound) / lowerBound;
+      }
+      if (best[0] != best[1]) {
+        ++wins[best[0] < best[1] ? 0 : 1];
+      }
+    }
+
+    for (int d = 0; d < decoders.length; ++d) {
+      System.out.printf("%-12s %-24s %12.0f dec/cpu-s %10.2f mean %8.2f%% best gap %5d wins%n",
+          name, names[d], decodes[d] * 1e9 / cpuNanos[d], makespanSum[d] / paths.size(),
+          100 * gapSum[d] / paths.size(), wins[d]);
+    }
+  }
+
+  /**
+   * Fill a list with a random permutation of the jobs.
+   *
+   * @param list list to fill
+   * @param rng  random number generator
+   * @return the list
+   */
+  static int[] shuffle(int[] list, Random rng) {
+    for (int j = 0; j < list.length; ++j) {
+      list[j] = j;
+    }
+    for (int j = list.length; j > 1; --j) {
+      final int k = rng.nextInt(j);
+      final int temp = list[j - 1];
+      list[j - 1] = list[k];
+      list[k] = temp;
+    }
+    return list;
+  }
+
+  /**
+   * The precedence repair the crossovers and the initial population used
+   * before PrecedenceRepair, kept as reference: swaps every job with a
+   * successor in front of it until no such pair is left.
+   *
+   * @param list     boxed activity list, repaired in place
+   * @param instance instance of the list
+   */
+  static void repairSwap(List<Integer> list, Instance instance) {
+    boolean inOrder = false;
+    while (!inOrder) {
+      inOrder = true;
+      for (int u = 0; u < instance.n(); ++u) {
+        for (int v = 0; v < instance.successors[u].length; ++v) {
+          int indexU = list.indexOf(u);
+          int indexSucc = list.indexOf(instance.successors[u][v]);
+          if (indexU > indexSucc) {
+            inOrder = false;
+            list.set(indexU, instance.successors[u][v]);
+            list.set(indexSucc, u);
+          }
+        }
+      }
+    }
+  }
+
+  /**
+   * The line splitting reader Io.readInstance used before, kept as reference.
+   */
+  static Instance readInstanceSplit(Path path) {
+    try (BufferedReader reader = Files.newBufferedReader(path, Charset.defaultCharset())) {
+      final String[] nrstr = reader.readLine().split("\\s+");
+      final Instance instance = new Instance(Integer.parseInt(nrstr[0]), Integer.parseInt(nrstr[1]));
+
+      final String[] nrres = reader.readLine().split("\\s+");
+      for (int i = 0; i < instance.r(); i++) {
+        instance.resources[i] = Integer.parseInt(nrres[i]);
+      }
+
+      for (int i = 0; i < instance.n(); i++) {
+        final String[] toks = reader.readLine().split("\\s+");
+        instance.processingTime[i] = Integer.parseInt(toks[0]);
+        for (int j = 0; j < instance.r(); j++) {
+          instance.demands[i][j] = Integer.parseInt(toks[j + 1]);
+        }
+        final int nSucc = Integer.parseInt(toks[instance.r() + 1]);
+        instance.successors[i] = new int[nSucc];
+        for (int j = 0; j < nSucc; j++) {
+          instance.successors[i][j] = Integer.parseInt(toks[instance.r() + j + 2]) - 1;
+        }
+      }
+
+      instance.buildIndex();
+      return instance;
+    } catch (Exception e) {
+      throw new Io.Error(e);
+    }
+  }
+
+  public static void main(String[] args) {
+    final ArrayList<String> paths = new ArrayList<>();
+    final ArrayList<String> corpora = new ArrayList<>();
+    final ArrayList<String> decoderCorpora = new ArrayList<>();
+    for (int i = 0; i < args.length; ++i) {
+      if (args[i].equals("--time")) {
+        measureTime = Long.parseLong(args[++i]);
+      } else if (args[i].equals("--max-alloc")) {
+        maxAllocation = Long.parseLong(args[++i]);
+      } else if (args[i].equals("--corpus")) {
+        corpora.add(args[++i]);
+      } else if (args[i].equals("--decoders")) {
+        decoderCorpora.add(args[++i]);
+      } else {
+        paths.add(args[i]);
+      }
+    }
+    if (paths.isEmpty() && corpora.isEmpty() && decoderCorpora.isEmpty()) {
+      paths.addAll(List.of(DefaultInstances));
+    }
+
+    for (String path : paths) {
+      benchmark(Paths.get(path));
+    }
+    for (String corpus : corpora) {
+      benchmarkCorpus(Paths.get(corpus));
+    }
+    for (String corpus : decoderCorpora) {
+      compareDecoders(Paths.get(corpus));
+    }
+    if (sink == 42) {
+      System.out.println();
+    }
+    if (allocationExceeded) {
+      System.exit(1);
+    }
+  }
+}
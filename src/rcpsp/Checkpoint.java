@@ -0,0 +1,145 @@
+package rcpsp;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Random;
+
+/**
+ * Snapshot of a single-population run: the start times of all members, the
+ * state of the random number generator and the number of generations.
+ * <p>
+ * Binary layout, big endian: magic, version, number of jobs, generation,
+ * seed of the random number generator, number of schedules, then the start
+ * times of every schedule.
+ */
+public class Checkpoint {
+  private static final int Magic = 0x52435043; // "RCPC"
+  private static final int Version = 2;
+  /// Magic, version, jobs, generation, seed and number of schedules.
+  private static final int HeaderBytes = 4 * Integer.BYTES + 2 * Long.BYTES;
+
+  public final int jobs;
+  public final long generation;
+  public final int[][] schedules;
+  private final long seed;
+
+  private Checkpoint(int jobs, long generation, long seed, int[][] schedules) {
+    this.jobs = jobs;
+    this.generation = generation;
+    this.seed = seed;
+    this.schedules = schedules;
+  }
+
+  /**
+   * Take a snapshot, copies everything so the run may go on while it is
+   * written.
+   * <p>
+   * The state of a Random cannot be read, so the generator of the run is
+   * reseeded with a seed drawn from it, which the snapshot keeps. A run
+   * resumed from the snapshot draws the same numbers as the one taking it.
+   *
+   * @param population members to store
+   * @param generation number of generations evolved so far
+   * @param rng        random number generator of the run
+   * @return snapshot
+   */
+  public static Checkpoint of(Population population, long generation, Random rng) {
+    final int[][] schedules = new int[population.size()][];
+    for (int i = 0; i < schedules.length; ++i) {
+      schedules[i] = population.get(i).getDataUnsafe().clone();
+    }
+    final int jobs = schedules.length == 0 ? 0 : schedules[0].length;
+
+    final long seed = rng.nextLong();
+    rng.setSeed(seed);
+    return new Checkpoint(jobs, generation, seed, schedules);
+  }
+
+  /**
+   * Returns a random number generator in the state of the snapshot.
+   */
+  public Random getRandom() {
+    return new Random(seed);
+  }
+
+  /**
+   * Write the snapshot. The file is replaced atomically, an interrupted write
+   * leaves the previous checkpoint intact.
+   *
+   * @param path checkpoint file
+   */
+  public void write(Path path) {
+    final ByteBuffer buffer = ByteBuffer.allocate(HeaderBytes + schedules.length * jobs * Integer.BYTES);
+    buffer.putInt(Magic).putInt(Version).putInt(jobs).putLong(generation).putLong(seed);
+    buffer.putInt(schedules.length);
+    for (int[] schedule : schedules) {
+      buffer.asIntBuffer().put(schedule);
+      buffer.position(buffer.position() + schedule.length * Integer.BYTES);
+    }
+    buffer.flip();
+
+    final Path temp = path.resolveSibling(path.getFileName() + ".tmp");
+    try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+        StandardOpenOption.TRUNCATE_EXISTING)) {
+      while (buffer.hasRemaining()) {
+        channel.write(buffer);
+      }
+      channel.force(false);
+    } catch (Exception e) {
+      throw new Io.Error(e);
+    }
+    try {
+      Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    } catch (Exception e) {
+      throw new Io.Error(e);
+    }
+  }
+
+  /**
+   * Read a snapshot.
+   *
+   * @param path checkpoint file
+   * @return snapshot
+   * @throws Io.Error if the file cannot be read or is no checkpoint
+   */
+  public static Checkpoint read(Path path) {
+    final ByteBuffer buffer;
+    try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+      buffer = ByteBuffer.allocate((int) channel.size());
+      while (buffer.hasRemaining() && channel.read(buffer) >= 0) {
+        // read the whole file
+      }
+      buffer.flip();
+    } catch (Exception e) {
+      throw new Io.Error(e);
+    }
+
+    try {
+      if (buffer.getInt() != Magic || buffer.getInt() != Version) {
+        throw new Io.Error("not a checkpoint: " + path);
+      }
+      final int jobs = buffer.getInt();
+      final long generation = buffer.getLong();
+      final long seed = buffer.getLong();
+      final int count = buffer.getInt();
+      // NB: The sizes are checked against the file before anything is
+      // allocated, a schedule without jobs counts as one to bound the count.
+      if (jobs < 0 || count < 0 || (long) count * Math.max(jobs, 1) * Integer.BYTES > buffer.remaining()) {
+        throw new Io.Error("truncated checkpoint: " + path);
+      }
+      final int[][] schedules = new int[count][jobs];
+      for (int[] schedule : schedules) {
+        buffer.asIntBuffer().get(schedule);
+        buffer.position(buffer.position() + jobs * Integer.BYTES);
+      }
+      return new Checkpoint(jobs, generation, seed, schedules);
+    } catch (BufferUnderflowException e) {
+      throw new Io.Error("truncated checkpoint: " + path);
+    }
+  }
+}
@@ -0,0 +1,92 @@
+package rcpsp;
+
+import java.nio.file.Path;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Writes checkpoints on a background thread so the solver does not wait for
+ * the disk. At most one write is pending, snapshots offered meanwhile are
+ * dropped.
+ */
+public class CheckpointWriter implements AutoCloseable {
+  private final Path path;
+  private final ExecutorService executor;
+  private final AtomicBoolean busy = new AtomicBoolean();
+  private volatile RuntimeException failure;
+
+  /**
+   * Construct.
+   *
+   * @param path checkpoint file, replaced by every write
+   */
+  public CheckpointWriter(Path path) {
+    this.path = path;
+    this.executor = Executors.newSingleThreadExecutor(runnable -> {
+      final Thread thread = new Thread(runnable, "checkpoint-writer");
+      thread.setDaemon(true);
+      return thread;
+    });
+  }
+
+  /**
+   * Returns true if no write is pending, the solver can skip taking a
+   * snapshot otherwise.
+   */
+  public boolean isIdle() {
+    return !busy.get();
+  }
+
+  /**
+   * Write the checkpoint in the background.
+   *
+   * @param checkpoint snapshot to write
+   * @return false if it was dropped because a write is still pending
+   */
+  public boolean offer(Checkpoint checkpoint) {
+    if (!busy.compareAndSet(false, true)) {
+      return false;
+    }
+    executor.execute(() -> {
+      try {
+        checkpoint.write(path);
+      } catch (RuntimeException e) {
+        failure = e;
+      } finally {
+        busy.set(false);
+      }
+    });
+    return true;
+  }
+
+  /**
+   * Wait for the pending write and write the final checkpoint.
+   *
+   * @param checkpoint final snapshot of the run
+   * @throws Io.Error if any write failed
+   */
+  public void finish(Checkpoint checkpoint) {
+    close();
+    checkpoint.write(path);
+  }
+
+  /**
+   * Wait for the pending write.
+   *
+   * @throws Io.Error if any write failed
+   */
+  @Override
+  public void close() {
+    executor.shutdown();
+    try {
+      executor.awaitTermination(1, TimeUnit.MINUTES);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+    if (failure != null) {
+      throw new Io.Error(failure);
+    }
+  }
+}
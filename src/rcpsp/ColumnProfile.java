@@ -0,0 +1,154 @@
+package rcpsp;
+
+import java.util.Arrays;
+
+/**
+ * Remaining capacity of every resource over time like ResourceProfile, but
+ * stored per resource: the free units of resource k in consecutive segments
+ * are consecutive in available[k]. This lets a ProfileKernel check a window
+ * of segments for one resource at a time in wide lanes.
+ */
+public class ColumnProfile {
+  private final Instance instance;
+  private final ProfileKernel kernel;
+  private final int[] capacity;
+  private final int[] processingTime;
+  private final int[][] demands;
+  private final int r;
+
+  /**
+   * Start of each segment, ascending. times[0] is always 0 and the last
+   * segment reaches to infinity.
+   */
+  private int[] times;
+
+  /**
+   * Free units per resource and segment, available[k][segment].
+   */
+  private final int[][] available;
+
+  private int segments;
+
+  /**
+   * Construct.
+   *
+   * @param instance instance whose jobs are going to be scheduled
+   * @param kernel   feasibility check of a window of segments
+   */
+  public ColumnProfile(Instance instance, ProfileKernel kernel) {
+    this.instance = instance;
+    this.kernel = kernel;
+    this.capacity = instance.resources;
+    this.processingTime = instance.processingTime;
+    this.demands = instance.demands;
+    this.r = instance.r();
+    this.times = new int[2 * instance.n() + 2];
+    this.available = new int[r][times.length];
+    reset();
+  }
+
+  public Instance getInstance() {
+    return instance;
+  }
+
+  public ProfileKernel getKernel() {
+    return kernel;
+  }
+
+  /**
+   * Release all resources again.
+   */
+  public void reset() {
+    segments = 1;
+    times[0] = 0;
+    for (int k = 0; k < r; ++k) {
+      available[k][0] = capacity[k];
+    }
+  }
+
+  /**
+   * Earliest point in time not before est at which a job can be processed for
+   * the given duration without exceeding any resource.
+   *
+   * @param job job to be scheduled
+   * @param est earliest start time with respect to the predecessors
+   * @return earliest feasible start time
+   */
+  public int earliestStart(int job, int est) {
+    int duration = processingTime[job];
+    if (duration == 0) {
+      return est;
+    }
+
+    int[] demand = demands[job];
+    int start = est;
+    int seg = segmentOf(start);
+    while (true) {
+      // segments overlapping [start, start + duration)
+      int to = segmentOf(start + duration - 1) + 1;
+      int conflict = kernel.firstConflict(available, demand, seg, to);
+      if (conflict == to) {
+        return start;
+      }
+      // jump behind the conflicting segment
+      // NB: The last segment always fits for a valid instance.
+      seg = conflict + 1;
+      start = times[seg];
+    }
+  }
+
+  /**
+   * Occupy the resources of a job.
+   *
+   * @param job   job to be scheduled
+   * @param start start time of the job
+   */
+  public void add(int job, int start) {
+    int duration = processingTime[job];
+    if (duration == 0) {
+      return;
+    }
+
+    int[] demand = demands[job];
+    int first = split(start);
+    int last = split(start + duration);
+    for (int k = 0; k < r; ++k) {
+      int[] column = available[k];
+      for (int seg = first; seg < last; ++seg) {
+        column[seg] -= demand[k];
+      }
+    }
+  }
+
+  /// Index of the segment containing t.
+  private int segmentOf(int t) {
+    int index = Arrays.binarySearch(times, 0, segments, t);
+    return index >= 0 ? index : -index - 2;
+  }
+
+  /// Make t the start of a segment and return its index.
+  private int split(int t) {
+    int seg = segmentOf(t);
+    if (times[seg] == t) {
+      return seg;
+    }
+
+    if (segments == times.length) {
+      times = Arrays.copyOf(times, 2 * times.length);
+      for (int k = 0; k < r; ++k) {
+        available[k] = Arrays.copyOf(available[k], times.length);
+      }
+    }
+
+    ++seg;
+    System.arraycopy(times, seg, times, seg + 1, segments - seg);
+    times[seg] = t;
+    for (int k = 0; k < r; ++k) {
+      int[] column = available[k];
+      System.arraycopy(column, seg, column, seg + 1, segments - seg);
+      column[seg] = column[seg - 1];
+    }
+    ++segments;
+    return seg;
+  }
+}
@@ -0,0 +1,216 @@
+package rcpsp;
+
+import java.util.Random;
+
+/**
+ * State of one solve: the instance, its parameters, the random number
+ * generator and the scratch buffers of the operators.
+ * <p>
+ * A context is used by one thread at a time. Independent solves, islands and
+ * the workers of the batch mode each have their own context, so any number of
+ * them can run concurrently in one JVM. Metrics and the statistics of the
+ * decode caches may be shared between the contexts of a run.
+ * <p>
+ * Without a decode cache the context recycles solutions through a
+ * SolutionPool and lends scratch buffers to the operators, so the steady state
+ * of a run allocates (almost) nothing.
+ */
+public class Context {
+  private static final ProfileKernel Kernel = ProfileKernel.load();
+
+  public final Instance instance;
+  public final Options options;
+
+  private final Decoder decoder;
+  private final Metrics metrics;
+  private final DecodeCache.Stats cacheStats;
+  private Random rng;
+
+  private final JobSet jobSet;
+  private final ResourceProfile profile;
+  private final PrecedenceRepair repair;
+  private final DecodeCache decodeCache;
+  private final SolutionPool pool;
+  private final int[][] intBuffers = new int[4][];
+  private final long[][] longBuffers = new long[4][];
+  private ColumnProfile columnProfile;
+  private IncrementalDecoder incremental;
+  private Context[] workers;
+
+  /**
+   * Construct.
+   *
+   * @param instance   instance to solve
+   * @param options    parameters of the solve
+   * @param seed       seed of the random number generator
+   * @param metrics    metrics of the run, may be null
+   * @param cacheStats statistics of the decode cache, null disables the cache
+   */
+  public Context(Instance instance, Options options, long seed, Metrics metrics, DecodeCache.Stats cacheStats) {
+    this.instance = instance;
+    this.options = options;
+    this.decoder = options.decoder.decoder();
+    this.metrics = metrics;
+    this.cacheStats = cacheStats;
+    this.rng = new Random(seed);
+
+    this.jobSet = new JobSet(instance.n());
+    this.profile = new ResourceProfile(instance);
+    this.repair = new PrecedenceRepair(instance);
+    this.decodeCache = cacheStats != null && options.decodeCacheSize > 0
+        ? new DecodeCache(instance, options.decodeCacheSize, cacheStats)
+        : null;
+    // NB: The cache keeps solutions after they left the population.
+    this.pool = decodeCache == null ? new SolutionPool(instance) : null;
+  }
+
+  /**
+   * Construct a context for benchmarks and tools: default options, no metrics
+   * and no decode cache.
+   *
+   * @param instance instance to solve
+   * @param seed     seed of the random number generator
+   */
+  public Context(Instance instance, long seed) {
+    this(instance, new Options(), seed, null, null);
+  }
+
+  /**
+   * Returns the contexts of the batch workers, created on first use. They
+   * share the instance, options, metrics and cache statistics of this context
+   * but have their own generator, scratch buffers and decode cache.
+   *
+   * @param count number of workers
+   */
+  Context[] getWorkers(int count) {
+    if (workers == null || workers.length != count) {
+      workers = new Context[count];
+      for (int i = 0; i < count; ++i) {
+        workers[i] = new Context(instance, options, 0, metrics, cacheStats);
+      }
+    }
+    return workers;
+  }
+
+  public Random getRandom() {
+    return rng;
+  }
+
+  /// Replaces the generator, e.g. by the one of a checkpoint.
+  public void setRandom(Random random) {
+    this.rng = random;
+  }
+
+  public Decoder getDecoder() {
+    return decoder;
+  }
+
+  /// Returns the metrics of the run, null if disabled.
+  public Metrics getMetrics() {
+    return metrics;
+  }
+
+  /// Returns the decode cache, null if disabled.
+  public DecodeCache getDecodeCache() {
+    return decodeCache;
+  }
+
+  public DecodeCache.Stats getCacheStats() {
+    return cacheStats;
+  }
+
+  /// Returns the scratch set of the jobs, cleared.
+  public JobSet getJobSet() {
+    jobSet.clear();
+    return jobSet;
+  }
+
+  /// Returns the resource profile, reset.
+  public ResourceProfile getResourceProfile() {
+    profile.reset();
+    return profile;
+  }
+
+  /// Returns the column profile, reset.
+  public ColumnProfile getColumnProfile() {
+    if (columnProfile == null) {
+      columnProfile = new ColumnProfile(instance, Kernel);
+    } else {
+      columnProfile.reset();
+    }
+    return columnProfile;
+  }
+
+  /// Returns the kernel of the column profiles, vectorized if available.
+  public static ProfileKernel getProfileKernel() {
+    return Kernel;
+  }
+
+  /// Returns a solution with all start times 0, recycled if possible.
+  public Solution newSolution() {
+    return pool != null ? pool.acquire() : new Solution(instance.n(), instance);
+  }
+
+  /// Returns a buffer for an activity list, recycled if possible.
+  public int[] newActivityList() {
+    return pool != null ? pool.acquireList() : new int[instance.n()];
+  }
+
+  /**
+   * Hand back a solution for reuse, ignored if the context does not recycle.
+   *
+   * @param solution solution created by this context nothing refers to anymore
+   */
+  public void recycle(Solution solution) {
+    if (pool != null) {
+      pool.release(solution);
+    }
+  }
+
+  /**
+   * Hand back an activity list for reuse, ignored if the context does not
+   * recycle.
+   *
+   * @param activityList list created by this context nothing refers to anymore
+   */
+  public void recycle(int[] activityList) {
+    if (pool != null) {
+      pool.releaseList(activityList);
+    }
+  }
+
+  /**
+   * Returns scratch buffer number slot with at least the given length, its
+   * contents are undefined. A buffer is valid until the next call for the
+   * same slot, so an operator must not hold it across calls of other
+   * operators using that slot.
+   *
+   * @param slot   0 to 3
+   * @param length minimal length
+   */
+  public int[] getIntBuffer(int slot, int length) {
+    if (intBuffers[slot] == null || intBuffers[slot].length < length) {
+      intBuffers[slot] = new int[length];
+    }
+    return intBuffers[slot];
+  }
+
+  /// Like getIntBuffer, for longs.
+  public long[] getLongBuffer(int slot, int length) {
+    if (longBuffers[slot] == null || longBuffers[slot].length < length) {
+      longBuffers[slot] = new long[length];
+    }
+    return longBuffers[slot];
+  }
+
+  public PrecedenceRepair getPrecedenceRepair() {
+    return repair;
+  }
+
+  public IncrementalDecoder getIncrementalDecoder() {
+    if (incremental == null) {
+      incremental = new IncrementalDecoder(this);
+    }
+    return incremental;
+  }
+}
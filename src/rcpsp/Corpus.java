@@ -0,0 +1,94 @@
+package rcpsp;
+
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+/**
+ * In-memory cache of parsed instances, shared by all threads. Instances are
+ * not modified once read and may be solved concurrently.
+ */
+public class Corpus {
+  private final ConcurrentHashMap<Path, Instance> instances = new ConcurrentHashMap<>();
+
+  /**
+   * Read all .RCP files of a directory in parallel.
+   *
+   * @param directory directory of instances, e.g. j30
+   * @return corpus holding every instance of the directory
+   * @throws Io.Error if the directory or any instance cannot be read
+   */
+  public static Corpus load(Path directory) {
+    final Corpus corpus = new Corpus();
+    corpus.preload(list(directory));
+    return corpus;
+  }
+
+  /**
+   * Returns the .RCP files of a directory sorted by name.
+   *
+   * @param directory directory of instances
+   */
+  public static List<Path> list(Path directory) {
+    final ArrayList<Path> paths = new ArrayList<>();
+    try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, "*.RCP")) {
+      for (Path path : stream) {
+        paths.add(path);
+      }
+    } catch (Exception e) {
+      throw new Io.Error(e);
+    }
+    Collections.sort(paths);
+    return paths;
+  }
+
+  /**
+   * Read the given instances in parallel, instances already cached are skipped.
+   *
+   * @param paths paths to instances
+   * @throws Io.Error if any instance cannot be read
+   */
+  public void preload(Collection<Path> paths) {
+    final ArrayList<Callable<Instance>> tasks = new ArrayList<>(paths.size());
+    for (Path path : paths) {
+      tasks.add(() -> get(path));
+    }
+
+    try {
+      for (Future<Instance> future : ForkJoinPool.commonPool().invokeAll(tasks)) {
+        future.get();
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new Io.Error(e);
+    } catch (ExecutionException e) {
+      if (e.getCause() instanceof Io.Error) {
+        throw (Io.Error) e.getCause();
+      }
+      throw new Io.Error(e);
+    }
+  }
+
+  /**
+   * Returns the instance of the given path, reads it on first use.
+   *
+   * @param path path to the instance
+   * @throws Io.Error if the instance cannot be read
+   */
+  public Instance get(Path path) {
+    return instances.computeIfAbsent(path.toAbsolutePath().normalize(), Io::readInstance);
+  }
+
+  public int size() {
+    return instances.size();
+  }
+}
@@ -0,0 +1,151 @@
+package rcpsp;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bounded cache of decoded activity lists, placed in front of ess.
+ * <p>
+ * Lists are identified by a 64-bit fingerprint and compared element-wise on a
+ * hit, so a fingerprint collision never returns a wrong schedule. The cache is
+ * 4-way set associative; within a set the victim is chosen by the CLOCK
+ * (second chance) policy. An instance is not thread-safe, every Context
+ * keeps its own cache, only the statistics may be shared.
+ */
+public class DecodeCache {
+  private static final int Ways = 4;
+
+  /**
+   * Hit, miss and eviction counters, shared by all caches of one run.
+   */
+  public static class Stats {
+    public final LongAdder hits = new LongAdder();
+    public final LongAdder misses = new LongAdder();
+    public final LongAdder evictions = new LongAdder();
+
+    @Override
+    public String toString() {
+      final long h = hits.sum();
+      final long m = misses.sum();
+      return String.format("hits=%d misses=%d evictions=%d hit-rate=%.3f", h, m, evictions.sum(),
+          h + m == 0 ? 0.0 : (double) h / (h + m));
+    }
+  }
+
+  private final Instance instance;
+  private final int capacity;
+  private final int setMask;
+  private final long[] fingerprints;
+  private final Solution[] solutions;
+  private final boolean[] referenced;
+  private final byte[] hands;
+  private final Stats stats;
+
+  /**
+   * Construct.
+   *
+   * @param instance instance of the cached solutions
+   * @param entries  minimal number of entries, rounded up to a power of two
+   * @param stats    counters to update
+   */
+  public DecodeCache(Instance instance, int entries, Stats stats) {
+    int sets = 1;
+    while (sets * Ways < entries) {
+      sets <<= 1;
+    }
+    this.instance = instance;
+    this.capacity = entries;
+    this.setMask = sets - 1;
+    this.fingerprints = new long[sets * Ways];
+    this.solutions = new Solution[sets * Ways];
+    this.referenced = new boolean[sets * Ways];
+    this.hands = new byte[sets];
+    this.stats = stats;
+  }
+
+  public Instance getInstance() {
+    return instance;
+  }
+
+  public int getCapacity() {
+    return capacity;
+  }
+
+  public Stats getStats() {
+    return stats;
+  }
+
+  /**
+   * 64-bit fingerprint of an activity list.
+   *
+   * @param activityList activity list
+   * @return fingerprint
+   */
+  public static long fingerprint(int[] activityList) {
+    long h = 0x9E3779B97F4A7C15L;
+    for (int job : activityList) {
+      h = (h ^ job) * 0xBF58476D1CE4E5B9L;
+      h ^= h >>> 31;
+    }
+    return h;
+  }
+
+  /**
+   * Look up a list.
+   *
+   * @param activityList activity list
+   * @param fingerprint  fingerprint of the list
+   * @return cached solution or null
+   */
+  public Solution get(int[] activityList, long fingerprint) {
+    final int base = set(fingerprint) * Ways;
+    for (int i = base; i < base + Ways; ++i) {
+      final Solution solution = solutions[i];
+      if (solution != null && fingerprints[i] == fingerprint
+          && Arrays.equals(solution.getDecodeOrder(), activityList)) {
+        referenced[i] = true;
+        stats.hits.increment();
+        return solution;
+      }
+    }
+    stats.misses.increment();
+    return null;
+  }
+
+  /**
+   * Insert a decoded solution, evicting an entry of its set if necessary.
+   *
+   * @param fingerprint fingerprint of the decoded list
+   * @param solution    solution which keeps the decoded list
+   */
+  public void put(long fingerprint, Solution solution) {
+    final int set = set(fingerprint);
+    final int base = set * Ways;
+    for (int i = base; i < base + Ways; ++i) {
+      if (solutions[i] == null) {
+        store(i, fingerprint, solution);
+        return;
+      }
+    }
+
+    // CLOCK: skip recently used entries once
+    int hand = hands[set];
+    while (referenced[base + hand]) {
+      referenced[base + hand] = false;
+      hand = (hand + 1) % Ways;
+    }
+    store(base + hand, fingerprint, solution);
+    hands[set] = (byte) ((hand + 1) % Ways);
+    stats.evictions.increment();
+  }
+
+  private void store(int index, long fingerprint, Solution solution) {
+    fingerprints[index] = fingerprint;
+    solutions[index] = solution;
+    referenced[index] = false;
+  }
+
+  private int set(long fingerprint) {
+    return (int) (fingerprint ^ (fingerprint >>> 32)) & setMask;
+  }
+}
@@ -0,0 +1,35 @@
+package rcpsp;
+
+/**
+ * Schedule generation scheme turning an activity list into a schedule.
+ */
+public interface Decoder {
+
+  /**
+   * Serial SGS: jobs are scheduled one after the other in list order, each as
+   * early as its predecessors and the resources allow.
+   */
+  Decoder Serial = Solver::ess;
+
+  /**
+   * Parallel SGS: time advances from one finish time to the next and all
+   * eligible jobs that fit are started in list order.
+   */
+  Decoder Parallel = ParallelSgs::decode;
+
+  /**
+   * Serial SGS on a per-resource profile checked in vector lanes, falls back
+   * to a scalar check without the Vector API.
+   */
+  Decoder Simd = SimdSgs::decode;
+
+  /**
+   * Decode an activity list.
+   *
+   * @param activityList jobs in order of priority, kept by the solution as its
+   *                     decode order and must not be modified afterwards
+   * @param context      context of the solve
+   * @return schedule
+   */
+  Solution decode(int[] activityList, Context context);
+}
@@ -0,0 +1,99 @@
+package rcpsp;
+
+/**
+ * Serial SGS for a family of activity lists that share prefixes with a base
+ * list, e.g. the retries of a mutation.
+ * <p>
+ * While decoding, the resource profile is saved every Stride positions as
+ * long as the list still equals the base list. A later list then resumes
+ * from the last saved position in front of its first difference to the base
+ * list instead of from the start. The results are the same as those of
+ * Solver.ess.
+ */
+public class IncrementalDecoder implements Decoder {
+  /// Distance between two saved profiles in list positions.
+  private static final int Stride = 8;
+
+  private final Context context;
+  private final Instance instance;
+
+  /// Start times of the jobs of the base list in front of the last saved position.
+  private final int[] startTimes;
+
+  /// saved[i] is the profile in front of position i * Stride of the base list.
+  private final int[][] saved;
+  private int savedCount;
+  private int[] base;
+
+  /**
+   * Construct.
+   *
+   * @param context context of the lists
+   */
+  public IncrementalDecoder(Context context) {
+    this.context = context;
+    this.instance = context.instance;
+    this.startTimes = new int[instance.n()];
+    this.saved = new int[instance.n() / Stride + 1][];
+  }
+
+  /**
+   * Start a new family of lists. Saved profiles of the previous base list are
+   * dropped, their buffers are reused.
+   *
+   * @param baseList list the following lists share prefixes with, must not
+   *                 be modified while it is in use
+   */
+  public void reset(int[] baseList) {
+    this.base = baseList;
+    // NB: The empty profile in front of position 0 is always known.
+    this.savedCount = 1;
+  }
+
+  @Override
+  public Solution decode(int[] activityList, Context context) {
+    assert context == this.context && base != null;
+    Metrics metrics = context.getMetrics();
+    long begin = metrics != null ? System.nanoTime() : 0;
+    final int n = instance.n();
+
+    int firstChange = 0;
+    while (firstChange < n && activityList[firstChange] == base[firstChange]) {
+      ++firstChange;
+    }
+
+    final Solution solution = context.newSolution();
+    final ResourceProfile profile = context.getResourceProfile();
+    final int resume = Math.min(firstChange / Stride, savedCount - 1);
+    final int from = resume * Stride;
+    if (resume > 0) {
+      profile.restore(saved[resume]);
+      for (int position = 0; position < from; ++position) {
+        solution.set(base[position], startTimes[base[position]]);
+      }
+    }
+
+    for (int position = from; position < n; ++position) {
+      if (position == savedCount * Stride && position <= firstChange) {
+        // everything in front of this position is the same as in the base list
+        saved[savedCount] = profile.save(saved[savedCount]);
+        ++savedCount;
+      }
+
+      final int job = activityList[position];
+      int startTime = Solver.getEarliestStartTime(job, instance, solution);
+      startTime = profile.earliestStart(job, startTime);
+      solution.set(job, startTime);
+      profile.add(job, startTime);
+      if (position < firstChange) {
+        startTimes[job] = startTime;
+      }
+    }
+    solution.setDecodeOrder(activityList);
+
+    if (metrics != null) {
+      metrics.decoded(System.nanoTime() - begin);
+    }
+    return solution;
+  }
+}
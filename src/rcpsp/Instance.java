@@ -27,6 +27,49 @@ public class Instance {
    */
   public int[][] successors;
 
+  /**
+   * Successors of all jobs in one array. The successors of job j are stored
+   * from successorStart[j] (inclusive) to successorStart[j + 1] (exclusive).
+   */
+  public int[] successorStart;
+  public int[] successorList;
+
+  /**
+   * Predecessors of all jobs in one array, laid out like successorList.
+   */
+  public int[] predecessorStart;
+  public int[] predecessorList;
+
+  /**
+   * Resource demands of all jobs in one array. The demand of job j for
+   * resource k is stored at j * r + k.
+   */
+  public int[] demandRows;
+
+  /**
+   * Transitive closure of the precedence relation, set by
+   * InstanceAnalysis.preprocess: bit b of row a, i.e. bit b % 64 of word
+   * a * closureWords + b / 64, is set if job a must precede job b.
+   */
+  public long[] closure;
+  public int closureWords;
+
+  /**
+   * Earliest start time of each job and length of the longest path from its
+   * start to the end of the project, both ignoring resources (CPM). A job
+   * starts at the latest at upper bound - tail in a schedule ending by the
+   * upper bound. Set by InstanceAnalysis.preprocess.
+   */
+  public int[] earliestStart;
+  public int[] tail;
+
+  /**
+   * Position of each job in a topological order of the precedence graph, set
+   * by InstanceAnalysis.preprocess. Breaks ties between jobs with equal
+   * times, the job numbers need not be topological.
+   */
+  public int[] topologicalRank;
+
   /**
    * Construct.
    *
@@ -57,4 +100,48 @@ public class Instance {
   public int r() {
     return resources.length;
   }
+
+  /**
+   * Returns true if job a must precede job b, directly or transitively.
+   * Needs the closure computed by InstanceAnalysis.preprocess.
+   */
+  public boolean mustPrecede(int a, int b) {
+    return (closure[a * closureWords + (b >>> 6)] & (1L << b)) != 0;
+  }
+
+  /**
+   * Build the flat adjacency and demand arrays from successors and demands.
+   * Has to be called once the instance is completely read.
+   */
+  public void buildIndex() {
+    final int n = n();
+    final int r = r();
+
+    successorStart = new int[n + 1];
+    predecessorStart = new int[n + 1];
+    for (int i = 0; i < n; i++) {
+      successorStart[i + 1] = successorStart[i] + successors[i].length;
+      for (int succ : successors[i]) {
+        predecessorStart[succ + 1]++;
+      }
+    }
+    for (int i = 0; i < n; i++) {
+      predecessorStart[i + 1] += predecessorStart[i];
+    }
+
+    successorList = new int[successorStart[n]];
+    predecessorList = new int[predecessorStart[n]];
+    final int[] fill = new int[n];
+    for (int i = 0; i < n; i++) {
+      System.arraycopy(successors[i], 0, successorList, successorStart[i], successors[i].length);
+      for (int succ : successors[i]) {
+        predecessorList[predecessorStart[succ] + fill[succ]++] = i;
+      }
+    }
+
+    demandRows = new int[n * r];
+    for (int i = 0; i < n; i++) {
+      System.arraycopy(demands[i], 0, demandRows, i * r, r);
+    }
+  }
 }
@@ -0,0 +1,219 @@
+package rcpsp;
+
+import java.util.Arrays;
+
+/**
+ * Static analysis of an instance: preprocessing of the precedence graph,
+ * critical path and lower bounds on the makespan.
+ */
+public class InstanceAnalysis {
+
+  /// Largest number of jobs preprocess accepts. The closure takes n^2 bits,
+  /// 32 MB at the maximum.
+  public static final int MaxJobs = 1 << 14;
+
+  /**
+   * Topological order of the jobs (Kahn's algorithm).
+   *
+   * @param instance instance
+   * @return jobs such that every job comes after its predecessors
+   */
+  public static int[] topologicalOrder(Instance instance) {
+    final int n = instance.n();
+    final int[] remaining = new int[n];
+    final int[] order = new int[n];
+    int tail = 0;
+    for (int j = 0; j < n; ++j) {
+      remaining[j] = instance.predecessorStart[j + 1] - instance.predecessorStart[j];
+      if (remaining[j] == 0) {
+        order[tail++] = j;
+      }
+    }
+    for (int head = 0; head < tail; ++head) {
+      final int job = order[head];
+      final int end = instance.successorStart[job + 1];
+      for (int s = instance.successorStart[job]; s < end; ++s) {
+        final int succ = instance.successorList[s];
+        if (--remaining[succ] == 0) {
+          order[tail++] = succ;
+        }
+      }
+    }
+    if (tail != n) {
+      throw new IllegalArgumentException("Precedence graph contains a cycle");
+    }
+    return order;
+  }
+
+  /**
+   * Preprocess a freshly read instance: remove the precedence arcs implied by
+   * others, then set the transitive closure, the CPM earliest starts and
+   * tails and the topological ranks of the instance. Implied arcs never
+   * change a schedule, so every operator scanning predecessors or successors
+   * just checks fewer of them.
+   *
+   * @param instance instance with its index built
+   * @return number of arcs removed
+   * @throws IllegalArgumentException if the instance has more than MaxJobs
+   *                                  jobs or the precedence graph contains a cycle
+   */
+  public static int preprocess(Instance instance) {
+    final int n = instance.n();
+    if (n > MaxJobs) {
+      throw new IllegalArgumentException(String.format("%d jobs exceed the maximum of %d", n, MaxJobs));
+    }
+    final int[] order = topologicalOrder(instance);
+    final int words = (n + 63) >>> 6;
+    final long size = (long) n * words;
+    final long[] closure = new long[(int) size];
+
+    // successors first, a row is the union of the successors and their rows
+    int removed = 0;
+    final long[] implied = new long[words];
+    for (int i = n - 1; i >= 0; --i) {
+      final int job = order[i];
+      final int row = job * words;
+      Arrays.fill(implied, 0);
+      for (int succ : instance.successors[job]) {
+        for (int w = 0; w < words; ++w) {
+          implied[w] |= closure[succ * words + w];
+        }
+      }
+
+      final int[] successors = instance.successors[job];
+      int kept = 0;
+      for (int succ : successors) {
+        // NB: Duplicate arcs are implied by their first copy.
+        final boolean duplicate = (closure[row + (succ >>> 6)] & (1L << succ)) != 0;
+        if ((implied[succ >>> 6] & (1L << succ)) == 0 && !duplicate) {
+          successors[kept++] = succ;
+          closure[row + (succ >>> 6)] |= 1L << succ;
+        }
+      }
+      if (kept < successors.length) {
+        removed += successors.length - kept;
+        instance.successors[job] = Arrays.copyOf(successors, kept);
+      }
+      for (int w = 0; w < words; ++w) {
+        closure[row + w] |= implied[w];
+      }
+    }
+    if (removed > 0) {
+      instance.buildIndex();
+    }
+    instance.closure = closure;
+    instance.closureWords = words;
+
+    instance.earliestStart = earliestStartTimes(instance);
+    final int[] tail = new int[n];
+    for (int i = n - 1; i >= 0; --i) {
+      final int job = order[i];
+      int longest = 0;
+      for (int succ : instance.successors[job]) {
+        longest = Math.max(longest, tail[succ]);
+      }
+      tail[job] = longest + instance.processingTime[job];
+    }
+    instance.tail = tail;
+    instance.topologicalRank = rank(order);
+    return removed;
+  }
+
+  /**
+   * Position of every job in a topological order, like Instance.topologicalRank
+   * of a preprocessed instance.
+   *
+   * @param instance instance with its index built
+   * @return rank of each job
+   * @throws IllegalArgumentException if the precedence graph contains a cycle
+   */
+  public static int[] topologicalRank(Instance instance) {
+    return rank(topologicalOrder(instance));
+  }
+
+  private static int[] rank(int[] order) {
+    final int[] rank = new int[order.length];
+    for (int i = 0; i < order.length; ++i) {
+      rank[order[i]] = i;
+    }
+    return rank;
+  }
+
+  /**
+   * Earliest start time of every job if resources are ignored (CPM forward
+   * pass).
+   *
+   * @param instance instance
+   * @return earliest start time for each job
+   */
+  public static int[] earliestStartTimes(Instance instance) {
+    final int[] est = new int[instance.n()];
+    for (int job : topologicalOrder(instance)) {
+      final int finish = est[job] + instance.processingTime[job];
+      final int end = instance.successorStart[job + 1];
+      for (int s = instance.successorStart[job]; s < end; ++s) {
+        final int succ = instance.successorList[s];
+        est[succ] = Math.max(est[succ], finish);
+      }
+    }
+    return est;
+  }
+
+  /**
+   * Length of the critical path, a lower bound on the makespan. Read from the
+   * CPM windows of a preprocessed instance: the earliest start plus the tail
+   * of a job is the longest path through it.
+   *
+   * @param instance instance
+   * @return critical path length
+   */
+  public static int criticalPathBound(Instance instance) {
+    if (instance.earliestStart != null) {
+      int bound = 0;
+      for (int j = 0; j < instance.n(); ++j) {
+        bound = Math.max(bound, instance.earliestStart[j] + instance.tail[j]);
+      }
+      return bound;
+    }
+
+    final int[] est = earliestStartTimes(instance);
+    int bound = 0;
+    for (int j = 0; j < instance.n(); ++j) {
+      bound = Math.max(bound, est[j] + instance.processingTime[j]);
+    }
+    return bound;
+  }
+
+  /**
+   * Energy bound: for every resource the total demand times duration divided
+   * by its capacity, rounded up. The maximum over all resources is a lower
+   * bound on the makespan.
+   *
+   * @param instance instance
+   * @return resource based lower bound
+   */
+  public static int resourceBound(Instance instance) {
+    int bound = 0;
+    for (int k = 0; k < instance.r(); ++k) {
+      if (instance.resources[k] == 0) {
+        continue;
+      }
+      long energy = 0;
+      for (int j = 0; j < instance.n(); ++j) {
+        energy += (long) instance.demands[j][k] * instance.processingTime[j];
+      }
+      bound = (int) Math.max(bound, (energy + instance.resources[k] - 1) / instance.resources[k]);
+    }
+    return bound;
+  }
+
+  /**
+   * Best of the available lower bounds.
+   *
+   * @param instance instance
+   * @return lower bound on the makespan
+   */
+  public static int lowerBound(Instance instance) {
+    return Math.max(criticalPathBound(instance), resourceBound(instance));
+  }
+}
@@ -1,19 +1,32 @@
 package rcpsp;
 
-import java.io.BufferedReader;
 import java.io.BufferedWriter;
 import java.io.PrintWriter;
 import java.nio.charset.Charset;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
 
 /**
  * Instance and solution I/O.
  */
 public class Io {
 
+  /// Largest number of jobs of an instance, far above the 302 of the largest
+  /// benchmark sets. Parsing checks it before allocating the instance, it is
+  /// the limit of the precedence closure built by the preprocessing.
+  public static final int MaxJobs = InstanceAnalysis.MaxJobs;
+
+  /// Largest sum of the processing times of an instance. No serial schedule
+  /// is longer, the population buckets its members by makespan up to it.
+  public static final int MaxHorizon = 1 << 20;
+
   /**
    * Read an instance from the given path.
+   * <p>
+   * The file is read in one go and its numbers are parsed straight from the
+   * bytes, line breaks carry no meaning in the format.
    *
    * @param path path to file / source
    * @return Instance on success.
@@ -25,46 +38,218 @@ public class Io {
       throw new Error(String.format("Path %s does not exist", path));
     }
 
+    final byte[] bytes;
     try {
+      bytes = Files.readAllBytes(path);
+    } catch (Exception e) {
+      throw new Error(e);
+    }
+    return parseInstance(bytes, path);
+  }
 
-      final BufferedReader reader = Files.newBufferedReader(path, Charset.defaultCharset());
+  /**
+   * Parse an instance in the .RCP format and preprocess it.
+   *
+   * @param bytes content of the file
+   * @param path  name of the source in error messages
+   * @return Instance on success.
+   * @throws Error if the content is malformed, the instance cannot be solved
+   *               or the precedence graph is cyclic
+   */
+  static Instance parseInstance(byte[] bytes, Path path) {
+    final Tokenizer tokens = new Tokenizer(bytes, path);
 
-      final String[] nrstr = reader.readLine().split("\\s+");
+    final int n = tokens.nextInt();
+    final int r = tokens.nextInt();
 
-      final int n = Integer.parseInt(nrstr[0]);
-      final int r = Integer.parseInt(nrstr[1]);
+    // NB: Every number takes a digit and a separator, which bounds the size
+    // of the instance by the length of the file before anything is allocated.
+    checkSize(n, r, 2 + r + (long) n * (r + 2), (bytes.length + 1) / 2, path.toString());
+    final Instance instance = new Instance(n, r);
 
-      final Instance instance = new Instance(n, r);
+    for (int i = 0; i < r; i++) {
+      instance.resources[i] = tokens.nextInt();
+    }
 
-      final String[] nrres = reader.readLine().split("\\s+");
+    for (int i = 0; i < n; i++) {
+      instance.processingTime[i] = tokens.nextInt();
 
-      for (int i = 0; i < instance.r(); i++) {
-        instance.resources[i] = Integer.parseInt(nrres[i]);
+      final int[] demands = instance.demands[i];
+      for (int j = 0; j < r; j++) {
+        demands[j] = tokens.nextInt();
       }
 
-      for (int i = 0; i < instance.n(); i++) {
-        final String[] toks = reader.readLine().split("\\s+");
+      final int nSucc = tokens.nextInt();
+      if (nSucc > n) {
+        throw new Error(String.format("%s: job %d has %d successors", path, i + 1, nSucc));
+      }
+      final int[] successors = new int[nSucc];
+      for (int j = 0; j < nSucc; j++) {
+        // jobs are numbered from 1 in the file
+        successors[j] = tokens.nextInt() - 1;
+        if (successors[j] < 0 || successors[j] >= n) {
+          throw new Error(String.format("%s: job %d has unknown successor %d", path, i + 1, successors[j] + 1));
+        }
+      }
+      instance.successors[i] = successors;
+    }
 
-        instance.processingTime[i] = Integer.parseInt(toks[0]);
+    checkInstance(instance, path.toString());
+    instance.buildIndex();
+    try {
+      InstanceAnalysis.preprocess(instance);
+    } catch (IllegalArgumentException e) {
+      throw new Error(String.format("%s: %s", path, e.getMessage()));
+    }
+    return instance;
+  }
 
-        for (int j = 0; j < instance.r(); j++) {
-          instance.demands[i][j] = Integer.parseInt(toks[j + 1]);
-        }
+  /**
+   * Parse an instance given as JSON object:
+   * {"resources": [...], "jobs": [{"duration": d, "demands": [...], "successors": [...]}, ...]}.
+   * Like in the .RCP format jobs are numbered from 1. The instance is
+   * preprocessed like a parsed .RCP file.
+   *
+   * @param text   JSON text
+   * @param source name of the source in error messages
+   * @return Instance on success.
+   * @throws Error if the content is malformed, the instance cannot be solved
+   *               or the precedence graph is cyclic
+   */
+  static Instance parseJsonInstance(String text, String source) {
+    try {
+      final Map<?, ?> root = (Map<?, ?>) Json.parse(text);
+      final List<?> resources = (List<?>) root.get("resources");
+      final List<?> jobs = (List<?>) root.get("jobs");
+      if (resources == null || jobs == null) {
+        throw new Error(String.format("%s: resources and jobs are required", source));
+      }
+
+      final int n = jobs.size();
+      final int r = resources.size();
+      checkSize(n, r, (long) n * r, text.length() / 2, source);
+      final Instance instance = new Instance(n, r);
+      for (int i = 0; i < r; i++) {
+        instance.resources[i] = nonNegative(resources.get(i), source);
+      }
 
-        final int nSucc = Integer.parseInt(toks[instance.r() + 1]);
+      for (int i = 0; i < n; i++) {
+        final Map<?, ?> job = (Map<?, ?>) jobs.get(i);
+        instance.processingTime[i] = nonNegative(job.get("duration"), source);
 
-        instance.successors[i] = new int[nSucc];
+        final List<?> demands = (List<?>) job.get("demands");
+        if (demands == null ? r != 0 : demands.size() != r) {
+          throw new Error(String.format("%s: job %d needs %d demands", source, i + 1, r));
+        }
+        for (int j = 0; j < r; j++) {
+          instance.demands[i][j] = nonNegative(demands.get(j), source);
+        }
 
-        for (int j = 0; j < nSucc; j++) {
-          //changed!!!!!!! the -1
-          instance.successors[i][j] = Integer.parseInt(toks[instance.r() + j + 2]) - 1;
+        final List<?> successors = job.get("successors") == null ? List.of() : (List<?>) job.get("successors");
+        instance.successors[i] = new int[successors.size()];
+        for (int j = 0; j < successors.size(); j++) {
+          final int successor = nonNegative(successors.get(j), source) - 1;
+          if (successor < 0 || successor >= n) {
+            throw new Error(String.format("%s: job %d has unknown successor %d", source, i + 1, successor + 1));
+          }
+          instance.successors[i][j] = successor;
         }
       }
 
+      checkInstance(instance, source);
+      instance.buildIndex();
+      InstanceAnalysis.preprocess(instance);
       return instance;
+    } catch (ClassCastException | IllegalArgumentException e) {
+      throw new Error(String.format("%s: %s", source, e.getMessage()));
+    }
+  }
 
-    } catch (Exception e) {
-      throw new Error(e);
+  /**
+   * Check the size of an instance before it is allocated.
+   *
+   * @param n       number of jobs
+   * @param r       number of resources
+   * @param numbers least number of values the source must hold
+   * @param limit   most number of values the source can hold
+   * @param source  name of the source in error messages
+   * @throws Error if there are too many jobs or the source is too short
+   */
+  private static void checkSize(int n, int r, long numbers, long limit, String source) {
+    if (n > MaxJobs) {
+      throw new Error(String.format("%s: %d jobs exceed the maximum of %d", source, n, MaxJobs));
+    }
+    if (numbers > limit) {
+      throw new Error(String.format("%s: too short for %d jobs and %d resources", source, n, r));
+    }
+  }
+
+  /**
+   * Check that an instance can be solved: its horizon is bounded and no job
+   * demands more than the capacity of a resource, the decoders would not
+   * find a feasible start for it.
+   *
+   * @param instance parsed instance
+   * @param source   name of the source in error messages
+   * @throws Error if the horizon is too long or a demand exceeds a capacity
+   */
+  private static void checkInstance(Instance instance, String source) {
+    long horizon = 0;
+    for (int j = 0; j < instance.n(); ++j) {
+      horizon += instance.processingTime[j];
+    }
+    if (horizon > MaxHorizon) {
+      throw new Error(String.format("%s: the durations must not sum up to more than %d", source, MaxHorizon));
+    }
+    for (int j = 0; j < instance.n(); ++j) {
+      for (int k = 0; k < instance.r(); ++k) {
+        if (instance.demands[j][k] > instance.resources[k]) {
+          throw new Error(String.format("%s: job %d demands more than the capacity of resource %d",
+              source, j + 1, k + 1));
+        }
+      }
+    }
+  }
+
+  private static int nonNegative(Object value, String source) {
+    if (!(value instanceof Long) || (Long) value < 0 || (Long) value > Integer.MAX_VALUE) {
+      throw new Error(String.format("%s: expected a non-negative integer but got %s", source, value));
+    }
+    return ((Long) value).intValue();
+  }
+
+  /**
+   * Reads non-negative decimal numbers separated by whitespace.
+   */
+  private static class Tokenizer {
+    private final byte[] bytes;
+    private final Path path;
+    private int pos;
+
+    Tokenizer(byte[] bytes, Path path) {
+      this.bytes = bytes;
+      this.path = path;
+    }
+
+    int nextInt() {
+      while (pos < bytes.length && bytes[pos] <= ' ') {
+        ++pos;
+      }
+      if (pos == bytes.length) {
+        throw new Error(String.format("%s: unexpected end of file", path));
+      }
+
+      final int start = pos;
+      int value = 0;
+      while (pos < bytes.length && bytes[pos] > ' ') {
+        final int digit = bytes[pos] - '0';
+        if (digit < 0 || digit > 9 || pos - start >= 9) {
+          throw new Error(String.format("%s: invalid number at byte %d", path, start));
+        }
+        value = 10 * value + digit;
+        ++pos;
+      }
+      return value;
     }
   }
 
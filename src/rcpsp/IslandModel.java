@@ -0,0 +1,191 @@
+package rcpsp;
+
+import java.util.ArrayList;
+import java.util.Random;
+import java.util.concurrent.BrokenBarrierException;
+import java.util.concurrent.CyclicBarrier;
+
+/**
+ * Island model of the genetic algorithm. Every island evolves its own
+ * population on its own thread. After each epoch of migrationInterval
+ * generations all islands meet at a barrier, where the time limit and the
+ * lower bound are checked and the elites of every island are sent to their
+ * neighbour.
+ * <p>
+ * Seeds and migration only depend on the seed and the number of islands, so a
+ * run is reproducible up to the number of epochs that fit into the time limit.
+ */
+public class IslandModel {
+  private final Instance instance;
+  private final Options options;
+  private final ArrayList<Population> populations;
+  private final Random migrationRng;
+  private final CyclicBarrier barrier;
+  private final DecodeCache.Stats cacheStats;
+  private Metrics metrics;
+
+  private SolverHandle handle;
+  private long startTime;
+  private long epochs;
+  private int bestMakespan;
+  private int lowerBound;
+  private long timeToBest;
+  private volatile boolean done;
+  private volatile Throwable failure;
+
+  /**
+   * Construct.
+   *
+   * @param instance instance to solve
+   * @param options  run parameters, options.islands is the number of threads
+   */
+  public IslandModel(Instance instance, Options options) {
+    this.instance = instance;
+    this.options = options;
+    this.populations = new ArrayList<>(options.islands);
+    for (int i = 0; i < options.islands; ++i) {
+      populations.add(null);
+    }
+    this.migrationRng = new Random(options.seed);
+    this.barrier = new CyclicBarrier(options.islands, this::endOfEpoch);
+    this.cacheStats = options.decodeCacheSize > 0 ? new DecodeCache.Stats() : null;
+  }
+
+  /**
+   * Evolve all islands until the run is stopped or the lower bound is met.
+   *
+   * @param handle     controls the run and receives its incumbents
+   * @param lowerBound lower bound on the makespan, the run stops once it is met
+   * @param metrics    metrics shared by all islands, may be null
+   * @return best solution over all islands
+   */
+  public Result solve(SolverHandle handle, int lowerBound, Metrics metrics) {
+    this.handle = handle;
+    this.startTime = handle.getStartTime();
+    this.metrics = metrics;
+    this.lowerBound = lowerBound;
+    this.bestMakespan = Integer.MAX_VALUE;
+
+    // NB: Island seeds are drawn before any thread starts.
+    final Thread[] threads = new Thread[options.islands];
+    for (int i = 0; i < options.islands; ++i) {
+      final int island = i;
+      final long seed = migrationRng.nextLong();
+      threads[i] = new Thread(() -> runIsland(island, seed), "island-" + i);
+    }
+    for (Thread thread : threads) {
+      thread.start();
+    }
+
+    for (Thread thread : threads) {
+      try {
+        thread.join();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new RuntimeException(e);
+      }
+    }
+    if (failure != null) {
+      throw new RuntimeException(failure);
+    }
+
+    final long generations = (epochs - 1) * options.migrationInterval * options.islands;
+    if (metrics != null) {
+      metrics.finish(totalSize(), bestMakespan);
+    }
+    return new Result(pickBestSolution(), generations, timeToBest, System.currentTimeMillis() - startTime,
+        lowerBound, cacheStats);
+  }
+
+  private Solution pickBestSolution() {
+    Solution best = null;
+    for (Population population : populations) {
+      Solution candidate = population.best();
+      if (best == null || candidate.getMakespan() < best.getMakespan()) {
+        best = candidate;
+      }
+    }
+    return best;
+  }
+
+  private int totalSize() {
+    int size = 0;
+    for (Population population : populations) {
+      size += population.size();
+    }
+    return size;
+  }
+
+  private void runIsland(int island, long seed) {
+    try {
+      final Context context = new Context(instance, options, seed, metrics, cacheStats);
+      populations.set(island, Solver.createInitialPopulation(context, options.initialPopulation,
+          options.populationCapacity));
+      barrier.await();
+
+      long generation = 0;
+      final Stagnation stagnation = new Stagnation(context, generation);
+      while (!done) {
+        final Population population = populations.get(island);
+        for (int i = 0; i < options.migrationInterval && !handle.isCancelled(); ++i) {
+          Solver.nextGeneration(population, context, generation++);
+          stagnation.update(population, generation);
+        }
+        barrier.await();
+      }
+    } catch (BrokenBarrierException e) {
+      // Another island failed, its failure is reported.
+    } catch (Throwable e) {
+      failure = e;
+      barrier.reset();
+    }
+  }
+
+  /// Barrier action, runs while all islands wait.
+  private void endOfEpoch() {
+    ++epochs;
+    final Solution best = pickBestSolution();
+    if (best.getMakespan() < bestMakespan) {
+      bestMakespan = best.getMakespan();
+      timeToBest = System.currentTimeMillis() - startTime;
+      handle.improved(best);
+      if (metrics != null) {
+        metrics.improved(bestMakespan);
+      }
+    }
+    if (metrics != null) {
+      metrics.report(totalSize(), bestMakespan);
+    }
+
+    if (bestMakespan <= lowerBound || handle.isCancelled() || handle.isPastDeadline()) {
+      done = true;
+      return;
+    }
+    if (options.islands < 2) {
+      return;
+    }
+
+    // collect all emigrants before delivering any of them
+    final int islands = options.islands;
+    final ArrayList<Solution[]> emigrants = new ArrayList<>(islands);
+    for (int i = 0; i < islands; ++i) {
+      emigrants.add(populations.get(i).best(options.migrants));
+    }
+
+    for (int i = 0; i < islands; ++i) {
+      int target;
+      if (options.topology == Options.Topology.RING) {
+        target = (i + 1) % islands;
+      } else {
+        target = migrationRng.nextInt(islands - 1);
+        if (target >= i) {
+          ++target;
+        }
+      }
+      for (Solution emigrant : emigrants.get(i)) {
+        // NB: Every population recycles its own members, so they are not shared.
+        Solver.insert(populations.get(target), emigrant.copy(), metrics);
+      }
+    }
+  }
+}
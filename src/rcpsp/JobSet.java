@@ -0,0 +1,42 @@
+package rcpsp;
+
+import java.util.Arrays;
+
+/**
+ * Set of job numbers backed by a generation-stamped array, so that clearing it
+ * between two children is O(1) and membership tests never box.
+ */
+public class JobSet {
+  private final int[] stamps;
+  private int generation;
+
+  public JobSet(int capacity) {
+    this.stamps = new int[capacity];
+    this.generation = 1;
+  }
+
+  public void clear() {
+    ++generation;
+    if (generation == Integer.MAX_VALUE) {
+      // Stamps wrapped around, start over
+      Arrays.fill(stamps, 0);
+      generation = 1;
+    }
+  }
+
+  public boolean contains(int job) {
+    return stamps[job] == generation;
+  }
+
+  public void add(int job) {
+    stamps[job] = generation;
+  }
+
+  public void remove(int job) {
+    stamps[job] = 0;
+  }
+
+  public int capacity() {
+    return stamps.length;
+  }
+}
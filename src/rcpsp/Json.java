@@ -0,0 +1,245 @@
+package rcpsp;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Minimal JSON reader and writer, just enough for the configuration files of
+ * auto_eval.py and the result tables. Objects are read as Map, arrays as List,
+ * numbers as Long or Double.
+ */
+public class Json {
+  /// Deepest nesting of objects and arrays, bounds the recursion of the reader.
+  private static final int MaxDepth = 64;
+
+  private final String text;
+  private int pos;
+  private int depth;
+
+  private Json(String text) {
+    this.text = text;
+  }
+
+  /**
+   * Parse a JSON document.
+   *
+   * @param text JSON text
+   * @return parsed value
+   * @throws IllegalArgumentException on malformed input
+   */
+  public static Object parse(String text) {
+    final Json json = new Json(text);
+    final Object value = json.value();
+    json.skipWhitespace();
+    if (json.pos != text.length()) {
+      throw json.error("Unexpected trailing content");
+    }
+    return value;
+  }
+
+  /**
+   * Quote a string as JSON string literal.
+   *
+   * @param value string to quote
+   * @return JSON string literal
+   */
+  public static String quote(String value) {
+    final StringBuilder builder = new StringBuilder(value.length() + 2).append('"');
+    for (int i = 0; i < value.length(); i++) {
+      final char c = value.charAt(i);
+      switch (c) {
+        case '"':
+          builder.append("\\\"");
+          break;
+        case '\\':
+          builder.append("\\\\");
+          break;
+        case '\n':
+          builder.append("\\n");
+          break;
+        case '\r':
+          builder.append("\\r");
+          break;
+        case '\t':
+          builder.append("\\t");
+          break;
+        default:
+          if (c < 0x20) {
+            builder.append(String.format("\\u%04x", (int) c));
+          } else {
+            builder.append(c);
+          }
+      }
+    }
+    return builder.append('"').toString();
+  }
+
+  private Object value() {
+    skipWhitespace();
+    if (pos >= text.length()) {
+      throw error("Unexpected end of input");
+    }
+    final char c = text.charAt(pos);
+    if ((c == '{' || c == '[') && depth == MaxDepth) {
+      throw error("Nesting deeper than " + MaxDepth);
+    }
+    switch (c) {
+      case '{':
+        ++depth;
+        final Map<String, Object> map = object();
+        --depth;
+        return map;
+      case '[':
+        ++depth;
+        final List<Object> list = array();
+        --depth;
+        return list;
+      case '"':
+        return string();
+      case 't':
+        return literal("true", Boolean.TRUE);
+      case 'f':
+        return literal("false", Boolean.FALSE);
+      case 'n':
+        return literal("null", null);
+      default:
+        return number();
+    }
+  }
+
+  private Map<String, Object> object() {
+    final Map<String, Object> map = new LinkedHashMap<>();
+    ++pos;
+    skipWhitespace();
+    if (peek() == '}') {
+      ++pos;
+      return map;
+    }
+    while (true) {
+      skipWhitespace();
+      final String key = string();
+      skipWhitespace();
+      expect(':');
+      map.put(key, value());
+      skipWhitespace();
+      if (peek() == ',') {
+        ++pos;
+      } else {
+        expect('}');
+        return map;
+      }
+    }
+  }
+
+  private List<Object> array() {
+    final List<Object> list = new ArrayList<>();
+    ++pos;
+    skipWhitespace();
+    if (peek() == ']') {
+      ++pos;
+      return list;
+    }
+    while (true) {
+      list.add(value());
+      skipWhitespace();
+      if (peek() == ',') {
+        ++pos;
+      } else {
+        expect(']');
+        return list;
+      }
+    }
+  }
+
+  private String string() {
+    expect('"');
+    final StringBuilder builder = new StringBuilder();
+    while (true) {
+      if (pos >= text.length()) {
+        throw error("Unterminated string");
+      }
+      final char c = text.charAt(pos++);
+      if (c == '"') {
+        return builder.toString();
+      }
+      if (c != '\\') {
+        builder.append(c);
+        continue;
+      }
+      final char escaped = text.charAt(pos++);
+      switch (escaped) {
+        case 'n':
+          builder.append('\n');
+          break;
+        case 'r':
+          builder.append('\r');
+          break;
+        case 't':
+          builder.append('\t');
+          break;
+        case 'b':
+          builder.append('\b');
+          break;
+        case 'f':
+          builder.append('\f');
+          break;
+        case 'u':
+          builder.append((char) Integer.parseInt(text.substring(pos, pos + 4), 16));
+          pos += 4;
+          break;
+        default:
+          builder.append(escaped);
+      }
+    }
+  }
+
+  private Object number() {
+    final int start = pos;
+    boolean integral = true;
+    while (pos < text.length()) {
+      final char c = text.charAt(pos);
+      if (c == '.' || c == 'e' || c == 'E') {
+        integral = false;
+      } else if (!(c == '-' || c == '+' || (c >= '0' && c <= '9'))) {
+        break;
+      }
+      ++pos;
+    }
+    if (start == pos) {
+      throw error("Unexpected character '" + text.charAt(pos) + "'");
+    }
+    final String token = text.substring(start, pos);
+    return integral ? (Object) Long.parseLong(token) : (Object) Double.parseDouble(token);
+  }
+
+  private Object literal(String word, Object value) {
+    if (!text.startsWith(word, pos)) {
+      throw error("Unexpected token");
+    }
+    pos += word.length();
+    return value;
+  }
+
+  private void skipWhitespace() {
+    while (pos < text.length() && Character.isWhitespace(text.charAt(pos))) {
+      ++pos;
+    }
+  }
+
+  private char peek() {
+    return pos < text.length() ? text.charAt(pos) : '\0';
+  }
+
+  private void expect(char c) {
+    if (peek() != c) {
+      throw error("Expected '" + c + "'");
+    }
+    ++pos;
+  }
+
+  private IllegalArgumentException error(String msg) {
+    return new IllegalArgumentException(msg + " at offset " + pos);
+  }
+}
@@ -0,0 +1,80 @@
+package rcpsp;
+
+import java.util.Arrays;
+
+/**
+ * Forward-backward improvement (double justification) of a schedule.
+ * <p>
+ * All jobs are first shifted as far right as possible, latest finishing job
+ * first, without exceeding the makespan. The right justified schedule is then
+ * decoded again from left to right in the order of its start times. The
+ * makespan of the result is never worse than the one of the input.
+ */
+public class Justification {
+  /// Bits per field of a sort key. Io limits the horizon to 2^20 and
+  /// InstanceAnalysis the jobs to 2^14, so times and ranks fit.
+  private static final int Bits = 21;
+  private static final long Mask = (1L << Bits) - 1;
+
+  /**
+   * Justify a schedule.
+   *
+   * @param solution precedence and resource feasible solution
+   * @param context  context of the solve the solution belongs to
+   * @return left justified solution after right justification
+   * @throws IllegalArgumentException if the makespan exceeds Io.MaxHorizon
+   */
+  public static Solution improve(Solution solution, Context context) {
+    final Instance instance = context.instance;
+    final int n = instance.n();
+    final int makespan = solution.getMakespan();
+
+    if (makespan > Io.MaxHorizon) {
+      throw new IllegalArgumentException("the makespan must not exceed " + Io.MaxHorizon);
+    }
+
+    // NB: Ties are broken by topological rank, not by job number: a zero
+    // duration job may start and finish with its successor, and the input
+    // need not be numbered topologically.
+    final int[] rank = instance.topologicalRank != null
+        ? instance.topologicalRank
+        : InstanceAnalysis.topologicalRank(instance);
+    final int[] jobOf = context.getIntBuffer(1, n);
+    final long[] keys = context.getLongBuffer(0, n);
+    for (int j = 0; j < n; ++j) {
+      jobOf[rank[j]] = j;
+      long finish = solution.get(j) + instance.processingTime[j];
+      keys[j] = (finish << (2 * Bits)) | ((long) solution.get(j) << Bits) | rank[j];
+    }
+    Arrays.sort(keys, 0, n);
+
+    // backward pass in mirrored time, latest finishing job first
+    final ResourceProfile profile = context.getResourceProfile();
+    final int[] latestStart = context.getIntBuffer(0, n);
+    Arrays.fill(latestStart, 0, n, 0);
+    for (int i = n - 1; i >= 0; --i) {
+      int job = jobOf[(int) (keys[i] & Mask)];
+
+      int est = 0;
+      int end = instance.successorStart[job + 1];
+      for (int s = instance.successorStart[job]; s < end; ++s) {
+        est = Math.max(est, makespan - latestStart[instance.successorList[s]]);
+      }
+
+      int mirroredStart = profile.earliestStart(job, est);
+      profile.add(job, mirroredStart);
+      latestStart[job] = makespan - mirroredStart - instance.processingTime[job];
+    }
+
+    // forward pass in order of the right justified start times
+    for (int j = 0; j < n; ++j) {
+      keys[j] = ((long) latestStart[j] << Bits) | rank[j];
+    }
+    Arrays.sort(keys, 0, n);
+    final int[] activityList = context.newActivityList();
+    for (int i = 0; i < n; ++i) {
+      activityList[i] = jobOf[(int) (keys[i] & Mask)];
+    }
+    return Solver.ess(activityList, context);
+  }
+}
@@ -0,0 +1,151 @@
+package rcpsp;
+
+import java.io.BufferedWriter;
+import java.io.PrintWriter;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Locale;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Throughput and convergence metrics of a run, written as JSON lines.
+ * <p>
+ * Counters may be updated from any thread. Records are written by the thread
+ * driving the run: a "best" record for every new best makespan, a "progress"
+ * record at most once per interval and an "end" record when the run is done.
+ * A "restart" record is written whenever a stagnating population is restarted.
+ * Times are milliseconds since the start of the run.
+ */
+public class Metrics implements AutoCloseable {
+  public final LongAdder generations = new LongAdder();
+  public final LongAdder decodes = new LongAdder();
+  public final LongAdder decodeNanos = new LongAdder();
+  public final LongAdder crossoverNanos = new LongAdder();
+  public final LongAdder selectionNanos = new LongAdder();
+  public final LongAdder insertNanos = new LongAdder();
+  public final LongAdder inserts = new LongAdder();
+  public final LongAdder duplicates = new LongAdder();
+  public final LongAdder restarts = new LongAdder();
+
+  private final PrintWriter printer;
+  private final long startTime;
+  private final long interval;
+  private long lastReport;
+  private long lastGenerations;
+  private long lastDecodes;
+
+  /**
+   * Construct.
+   *
+   * @param path      file the records are written to
+   * @param startTime start of the run as given by System.currentTimeMillis()
+   * @param interval  minimal number of milliseconds between two progress records
+   * @throws Io.Error if the file cannot be opened
+   */
+  public Metrics(Path path, long startTime, long interval) {
+    try {
+      final BufferedWriter writer = Files.newBufferedWriter(path, Charset.defaultCharset());
+      this.printer = new PrintWriter(writer);
+    } catch (Exception e) {
+      throw new Io.Error(e);
+    }
+    this.startTime = startTime;
+    this.interval = interval;
+    this.lastReport = startTime;
+  }
+
+  public void decoded(long nanos) {
+    decodes.increment();
+    decodeNanos.add(nanos);
+  }
+
+  public void crossedOver(long nanos) {
+    crossoverNanos.add(nanos);
+  }
+
+  public void selected(long nanos) {
+    selectionNanos.add(nanos);
+  }
+
+  public void inserted(boolean accepted, long nanos) {
+    inserts.increment();
+    if (!accepted) {
+      duplicates.increment();
+    }
+    insertNanos.add(nanos);
+  }
+
+  /**
+   * Record a new best makespan.
+   *
+   * @param makespan new best makespan
+   */
+  public synchronized void improved(int makespan) {
+    printer.format(Locale.ROOT, "{\"type\":\"best\",\"t\":%d,\"makespan\":%d,\"generations\":%d}%n",
+        System.currentTimeMillis() - startTime, makespan, generations.sum());
+  }
+
+  /**
+   * Record the restart of a stagnating population.
+   *
+   * @param populationSize number of solutions after the restart
+   * @param best           best makespan of the population
+   * @param diversity      diversity that caused the restart, NaN if it was the
+   *                       number of generations without improvement
+   */
+  public synchronized void restarted(int populationSize, int best, double diversity) {
+    restarts.increment();
+    printer.format(Locale.ROOT, "{\"type\":\"restart\",\"t\":%d,\"generations\":%d,\"population\":%d,"
+            + "\"best\":%d,\"diversity\":%s}%n",
+        System.currentTimeMillis() - startTime, generations.sum(), populationSize, best,
+        Double.isNaN(diversity) ? "null" : String.format(Locale.ROOT, "%.4f", diversity));
+  }
+
+  /**
+   * Write a progress record if the interval has passed since the last one.
+   *
+   * @param populationSize current number of solutions
+   * @param best           current best makespan
+   */
+  public synchronized void report(int populationSize, int best) {
+    final long now = System.currentTimeMillis();
+    if (now - lastReport >= interval) {
+      write("progress", now, populationSize, best);
+    }
+  }
+
+  /**
+   * Write the final record and close the file.
+   *
+   * @param populationSize final number of solutions
+   * @param best           final best makespan
+   */
+  public synchronized void finish(int populationSize, int best) {
+    write("end", System.currentTimeMillis(), populationSize, best);
+    close();
+  }
+
+  @Override
+  public synchronized void close() {
+    printer.close();
+  }
+
+  private void write(String type, long now, int populationSize, int best) {
+    final long gens = generations.sum();
+    final long decs = decodes.sum();
+    final long inserted = inserts.sum();
+    final double seconds = Math.max(1, now - lastReport) / 1000.0;
+    printer.format(Locale.ROOT, "{\"type\":\"%s\",\"t\":%d,\"generations\":%d,\"generations_per_s\":%.1f,"
+            + "\"decodes\":%d,\"decodes_per_s\":%.1f,\"decode_ms\":%.1f,\"crossover_ms\":%.1f,"
+            + "\"selection_ms\":%.1f,\"insert_ms\":%.1f,\"population\":%d,\"duplicate_rate\":%.4f,\"restarts\":%d,"
+            + "\"best\":%d}%n",
+        type, now - startTime, gens, (gens - lastGenerations) / seconds, decs, (decs - lastDecodes) / seconds,
+        decodeNanos.sum() / 1e6, crossoverNanos.sum() / 1e6, selectionNanos.sum() / 1e6,
+        insertNanos.sum() / 1e6, populationSize,
+        inserted == 0 ? 0.0 : (double) duplicates.sum() / inserted, restarts.sum(), best);
+    lastReport = now;
+    lastGenerations = gens;
+    lastDecodes = decs;
+  }
+}
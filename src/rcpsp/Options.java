@@ -0,0 +1,305 @@
+package rcpsp;
+
+/**
+ * Parameters of a run. The four positional arguments of the command line are
+ * followed by optional flags of the form --name value.
+ */
+public class Options {
+
+  public static final String USAGE = "usage: java Solver <instance-path> <solution-path> <time-limit> <seed>"
+      + " [--islands <n>] [--topology ring|random] [--migration-interval <generations>] [--migrants <n>]"
+      + " [--batch <children>] [--justify <generations>]"
+      + " [--decode-cache <entries>] [--metrics <jsonl-path>] [--metrics-interval <ms>]"
+      + " [--check-interval <generations>] [--checkpoint <path>] [--checkpoint-interval <ms>]"
+      + " [--resume <path>] [--warm-start <path>] [--decoder serial|parallel|mixed|simd]"
+      + " [--stagnation <generations>] [--min-diversity <fraction>] [--elites <n>]";
+
+  /**
+   * Migration topology of the island model.
+   */
+  public enum Topology {
+    /**
+     * Island i sends its elites to island i + 1.
+     */
+    RING,
+    /**
+     * Every island sends its elites to a randomly chosen other island.
+     */
+    RANDOM
+  }
+
+  /**
+   * Schedule generation scheme used to decode activity lists.
+   */
+  public enum Scheme {
+    SERIAL,
+    PARALLEL,
+    /**
+     * Every decode picks one of both at random.
+     */
+    MIXED,
+    /**
+     * Serial SGS with the vectorized feasibility check.
+     */
+    SIMD;
+
+    /**
+     * Returns the decoder of the scheme.
+     */
+    public Decoder decoder() {
+      switch (this) {
+        case PARALLEL:
+          return Decoder.Parallel;
+        case SIMD:
+          return Decoder.Simd;
+        case MIXED:
+          return (activityList, context) -> context.getRandom().nextBoolean()
+              ? Decoder.Parallel.decode(activityList, context)
+              : Decoder.Serial.decode(activityList, context);
+        default:
+          return Decoder.Serial;
+      }
+    }
+  }
+
+  public String instancePath;
+  public String solutionPath;
+
+  /**
+   * Time limit in milliseconds.
+   */
+  public long timeLimit;
+  public long seed;
+
+  /**
+   * Number of generations between two checks of the deadline.
+   */
+  public int checkInterval = 16;
+
+  /**
+   * Number of solutions of the initial population.
+   */
+  public int initialPopulation = 30;
+
+  /**
+   * Maximal number of solutions, beyond it the worst are evicted.
+   */
+  public int populationCapacity = 5 * initialPopulation;
+
+  /**
+   * Number of solutions drawn for a tournament, the best two become parents.
+   */
+  public int tournamentSize = 4;
+
+  /**
+   * Probability that a child of the two-point crossover is mutated.
+   */
+  public double mutationRate = 0.40;
+
+  /**
+   * Number of swaps a mutation tries until one gives a feasible schedule.
+   */
+  public int mutationAttempts = 60;
+
+  /**
+   * Probability of an additional child by uniform crossover per generation.
+   */
+  public double uniformCrossoverRate = 0.1;
+
+  /**
+   * Number of sub-populations, each evolved on its own thread.
+   */
+  public int islands = 1;
+  public Topology topology = Topology.RING;
+  public Scheme decoder = Scheme.SERIAL;
+
+  /**
+   * Number of generations between two migrations.
+   */
+  public int migrationInterval = 500;
+
+  /**
+   * Number of elites each island sends per migration.
+   */
+  public int migrants = 2;
+
+  /**
+   * Number of children created in parallel per generation, 0 evolves one
+   * child after the other.
+   */
+  public int batchSize = 0;
+
+  /**
+   * Number of generations between two forward-backward improvements of an
+   * elite solution, 0 disables them.
+   */
+  public int justifyInterval = 0;
+
+  /**
+   * Number of generations without a new best makespan after which a
+   * population is restarted, 0 disables it.
+   */
+  public int stagnationGenerations = 0;
+
+  /**
+   * Diversity below which a population is restarted, see
+   * Stagnation.diversity; 0 disables it.
+   */
+  public double minDiversity = 0.0;
+
+  /**
+   * Number of best members kept by a restart.
+   */
+  public int elites = 2;
+
+  /**
+   * Number of decoded activity lists kept per thread, 0 disables the cache.
+   */
+  public int decodeCacheSize = 0;
+
+  /**
+   * File the metrics of the run are written to as JSON lines, null disables
+   * them.
+   */
+  public String metricsPath = null;
+
+  /**
+   * Milliseconds between two progress records of the metrics.
+   */
+  public long metricsInterval = 1000;
+
+  /**
+   * File the population is periodically saved to, null disables checkpoints.
+   * Checkpoints, resume and warm start need a single population.
+   */
+  public String checkpointPath = null;
+
+  /**
+   * Milliseconds between two checkpoints.
+   */
+  public long checkpointInterval = 60000;
+
+  /**
+   * Checkpoint to continue from with its population, random numbers and
+   * generation count, null starts a new run.
+   */
+  public String resumePath = null;
+
+  /**
+   * Checkpoint whose schedules seed the initial population of a new run,
+   * possibly of a changed instance.
+   */
+  public String warmStartPath = null;
+
+  /**
+   * Parse the command line.
+   *
+   * @param args command line arguments
+   * @return parsed options
+   * @throws IllegalArgumentException on missing or malformed arguments
+   */
+  public static Options parse(String[] args) {
+    if (args.length < 4 || args.length % 2 != 0) {
+      throw new IllegalArgumentException("Wrong number of arguments");
+    }
+
+    final Options options = new Options();
+    options.instancePath = args[0];
+    options.solutionPath = args[1];
+    options.timeLimit = Long.parseLong(args[2]) * 1000;
+    options.seed = Long.parseLong(args[3]);
+
+    for (int i = 4; i < args.length; i += 2) {
+      final String value = args[i + 1];
+      switch (args[i]) {
+        case "--islands":
+          options.islands = positive(args[i], value);
+          break;
+        case "--topology":
+          options.topology = Topology.valueOf(value.toUpperCase());
+          break;
+        case "--decoder":
+          options.decoder = Scheme.valueOf(value.toUpperCase());
+          break;
+        case "--migration-interval":
+          options.migrationInterval = positive(args[i], value);
+          break;
+        case "--migrants":
+          options.migrants = positive(args[i], value);
+          break;
+        case "--batch":
+          options.batchSize = Integer.parseInt(value);
+          if (options.batchSize < 0) {
+            throw new IllegalArgumentException("--batch must not be negative");
+          }
+          break;
+        case "--justify":
+          options.justifyInterval = Integer.parseInt(value);
+          if (options.justifyInterval < 0) {
+            throw new IllegalArgumentException("--justify must not be negative");
+          }
+          break;
+        case "--decode-cache":
+          options.decodeCacheSize = Integer.parseInt(value);
+          if (options.decodeCacheSize < 0) {
+            throw new IllegalArgumentException("--decode-cache must not be negative");
+          }
+          break;
+        case "--stagnation":
+          options.stagnationGenerations = Integer.parseInt(value);
+          if (options.stagnationGenerations < 0) {
+            throw new IllegalArgumentException("--stagnation must not be negative");
+          }
+          break;
+        case "--min-diversity":
+          options.minDiversity = Double.parseDouble(value);
+          if (!(options.minDiversity >= 0 && options.minDiversity < 1)) {
+            throw new IllegalArgumentException("--min-diversity must be in [0, 1)");
+          }
+          break;
+        case "--elites":
+          options.elites = positive(args[i], value);
+          break;
+        case "--metrics":
+          options.metricsPath = value;
+          break;
+        case "--metrics-interval":
+          options.metricsInterval = positive(args[i], value);
+          break;
+        case "--check-interval":
+          options.checkInterval = positive(args[i], value);
+          break;
+        case "--checkpoint":
+          options.checkpointPath = value;
+          break;
+        case "--checkpoint-interval":
+          options.checkpointInterval = positive(args[i], value);
+          break;
+        case "--resume":
+          options.resumePath = value;
+          break;
+        case "--warm-start":
+          options.warmStartPath = value;
+          break;
+        default:
+          throw new IllegalArgumentException("Unknown option " + args[i]);
+      }
+    }
+    final boolean restores = options.resumePath != null || options.warmStartPath != null;
+    if (options.islands > 1 && (options.checkpointPath != null || restores)) {
+      throw new IllegalArgumentException("Checkpoints need a single population");
+    }
+    if (options.resumePath != null && options.warmStartPath != null) {
+      throw new IllegalArgumentException("Either resume or warm start");
+    }
+    return options;
+  }
+
+  private static int positive(String name, String value) {
+    final int parsed = Integer.parseInt(value);
+    if (parsed < 1) {
+      throw new IllegalArgumentException(name + " must be at least 1");
+    }
+    return parsed;
+  }
+}
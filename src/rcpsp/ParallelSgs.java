@@ -0,0 +1,136 @@
+package rcpsp;
+
+import java.util.Arrays;
+
+/**
+ * Parallel schedule generation scheme.
+ * <p>
+ * At every decision point t the eligible jobs, i.e. those whose predecessors
+ * have all finished by t, are started at t in the order of the activity list
+ * as long as they fit into the resource profile. The next decision point is
+ * the earliest finish time of the jobs in progress. The activity list only
+ * gives priorities, it does not have to respect the precedence constraints.
+ */
+public class ParallelSgs {
+
+  /**
+   * Decode an activity list.
+   *
+   * @param activityList jobs in order of priority
+   * @param context      context of the solve
+   * @return non-delay schedule
+   */
+  public static Solution decode(int[] activityList, Context context) {
+    final Instance instance = context.instance;
+    Metrics metrics = context.getMetrics();
+    long begin = metrics != null ? System.nanoTime() : 0;
+    final int n = instance.n();
+    final Solution solution = context.newSolution();
+    final ResourceProfile profile = context.getResourceProfile();
+
+    // eligible jobs as bits of their list positions, so they are visited by priority
+    final int words = (n + 63) >>> 6;
+    final long[] eligible = context.getLongBuffer(0, words);
+    Arrays.fill(eligible, 0, words, 0);
+    final int[] waitingFor = context.getIntBuffer(0, n);
+    for (int position = 0; position < n; ++position) {
+      final int job = activityList[position];
+      waitingFor[job] = instance.predecessorStart[job + 1] - instance.predecessorStart[job];
+      if (waitingFor[job] == 0) {
+        eligible[position >>> 6] |= 1L << position;
+      }
+    }
+    final int[] positionOf = context.getIntBuffer(1, n);
+    for (int position = 0; position < n; ++position) {
+      positionOf[activityList[position]] = position;
+    }
+
+    // jobs in progress as a min-heap of (finish time << 32 | job)
+    final long[] running = context.getLongBuffer(1, n);
+    int runningCount = 0;
+
+    int t = 0;
+    int scheduled = 0;
+    while (scheduled < n) {
+      // start all eligible jobs that fit, by priority
+      for (int w = 0; w < words; ++w) {
+        long bits = eligible[w];
+        while (bits != 0) {
+          final int position = (w << 6) + Long.numberOfTrailingZeros(bits);
+          bits &= bits - 1;
+          final int job = activityList[position];
+          if (profile.fits(job, t)) {
+            profile.add(job, t);
+            solution.set(job, t);
+            eligible[w] &= ~(1L << position);
+            ++scheduled;
+            runningCount = push(running, runningCount, (long) (t + instance.processingTime[job]) << 32 | job);
+          }
+        }
+      }
+      if (runningCount == 0) {
+        if (scheduled < n) {
+          throw new IllegalStateException("Eligible jobs exceed the resource capacity");
+        }
+        break;
+      }
+
+      // advance to the next finish time and release the successors of all jobs finishing then
+      t = (int) (running[0] >>> 32);
+      while (runningCount > 0 && (int) (running[0] >>> 32) == t) {
+        final int job = (int) running[0];
+        runningCount = pop(running, runningCount);
+        for (int i = instance.successorStart[job]; i < instance.successorStart[job + 1]; ++i) {
+          final int successor = instance.successorList[i];
+          if (--waitingFor[successor] == 0) {
+            final int position = positionOf[successor];
+            eligible[position >>> 6] |= 1L << position;
+          }
+        }
+      }
+    }
+    solution.setDecodeOrder(activityList);
+
+    if (metrics != null) {
+      metrics.decoded(System.nanoTime() - begin);
+    }
+    return solution;
+  }
+
+  private static int push(long[] heap, int size, long key) {
+    int i = size;
+    while (i > 0) {
+      final int parent = (i - 1) >>> 1;
+      if (heap[parent] <= key) {
+        break;
+      }
+      heap[i] = heap[parent];
+      i = parent;
+    }
+    heap[i] = key;
+    return size + 1;
+  }
+
+  private static int pop(long[] heap, int size) {
+    final long last = heap[--size];
+    int i = 0;
+    while (true) {
+      int child = 2 * i + 1;
+      if (child >= size) {
+        break;
+      }
+      if (child + 1 < size && heap[child + 1] < heap[child]) {
+        ++child;
+      }
+      if (heap[child] >= last) {
+        break;
+      }
+      heap[i] = heap[child];
+      i = child;
+    }
+    if (size > 0) {
+      heap[i] = last;
+    }
+    return size;
+  }
+}
@@ -0,0 +1,303 @@
+package rcpsp;
+
+import java.util.Arrays;
+
+/**
+ * Steady-state population of bounded size.
+ * <p>
+ * Members are stored in a dense array for uniform random access. A bucket per
+ * makespan value, holding its members oldest first, gives the best and the
+ * worst member in O(1), and a hash index over a 64-bit fingerprint of the
+ * start times, confirmed element-wise, rejects exact duplicates. Adding a
+ * member to a full population evicts the oldest of the worst members.
+ */
+public class Population {
+  private static final int None = -1;
+
+  private final int capacity;
+  private final Solution[] members;
+  private final long[] fingerprints;
+  private int size;
+
+  /// Doubly linked list of the slots of every makespan bucket.
+  private final int[] next;
+  private final int[] prev;
+  private final int[] bucketHead;
+  private final int[] bucketTail;
+  private int bestBucket;
+  private int worstBucket;
+
+  /// Open addressing index fingerprint -> slot, None marks a free entry.
+  private final int[] index;
+  private final int indexMask;
+
+  /**
+   * Construct.
+   *
+   * @param instance instance of the solutions
+   * @param capacity maximal number of members
+   * @throws IllegalArgumentException if the durations sum up to more than Io.MaxHorizon
+   */
+  public Population(Instance instance, int capacity) {
+    this.capacity = capacity;
+    this.members = new Solution[capacity + 1];
+    this.fingerprints = new long[capacity + 1];
+    this.next = new int[capacity + 1];
+    this.prev = new int[capacity + 1];
+
+    // NB: No serial schedule is longer than the sum of all processing times,
+    // which parsing limits to Io.MaxHorizon.
+    long sum = 0;
+    for (int i = 0; i < instance.n(); ++i) {
+      sum += instance.processingTime[i];
+    }
+    if (sum > Io.MaxHorizon) {
+      throw new IllegalArgumentException("the durations must not sum up to more than " + Io.MaxHorizon);
+    }
+    final int horizon = (int) sum;
+    this.bucketHead = new int[horizon + 1];
+    this.bucketTail = new int[horizon + 1];
+    Arrays.fill(bucketHead, None);
+    Arrays.fill(bucketTail, None);
+    this.bestBucket = horizon + 1;
+    this.worstBucket = -1;
+
+    int indexSize = 1;
+    while (indexSize < 2 * (capacity + 1)) {
+      indexSize <<= 1;
+    }
+    this.index = new int[indexSize];
+    this.indexMask = indexSize - 1;
+    Arrays.fill(index, None);
+  }
+
+  public int size() {
+    return size;
+  }
+
+  public int capacity() {
+    return capacity;
+  }
+
+  public Solution get(int slot) {
+    return members[slot];
+  }
+
+  /**
+   * 64-bit fingerprint of the start times of a solution.
+   *
+   * @param solution solution
+   * @return fingerprint
+   */
+  public static long fingerprint(Solution solution) {
+    long h = 0x9E3779B97F4A7C15L;
+    for (int start : solution.getDataUnsafe()) {
+      h = (h ^ start) * 0xBF58476D1CE4E5B9L;
+      h ^= h >>> 31;
+    }
+    return h;
+  }
+
+  /**
+   * Check whether a solution with the same start times is a member.
+   *
+   * @param solution solution
+   * @return true if it is a duplicate
+   */
+  public boolean contains(Solution solution) {
+    return find(solution, fingerprint(solution)) != None;
+  }
+
+  /**
+   * Add a solution unless it duplicates a member. A population exceeding its
+   * capacity evicts its worst member, which may be the new solution.
+   *
+   * @param solution solution to add
+   * @return false if the solution was rejected as a duplicate
+   */
+  public boolean add(Solution solution) {
+    return offer(solution) != solution;
+  }
+
+  /**
+   * Add a solution like add() and return what is left over.
+   *
+   * @param solution solution to add
+   * @return the solution itself if it was rejected as a duplicate or evicted
+   * right away, the evicted member if it was added to a full population,
+   * null otherwise
+   */
+  public Solution offer(Solution solution) {
+    final long fingerprint = fingerprint(solution);
+    if (find(solution, fingerprint) != None) {
+      return solution;
+    }
+
+    final int slot = size++;
+    members[slot] = solution;
+    fingerprints[slot] = fingerprint;
+    insertIndex(fingerprint, slot);
+    link(slot);
+
+    if (size > capacity) {
+      return removeWorst();
+    }
+    return null;
+  }
+
+  /**
+   * Best member, ties are broken in favour of the oldest one.
+   *
+   * @return best member or null if empty
+   */
+  public Solution best() {
+    return size == 0 ? null : members[bucketHead[bestBucket]];
+  }
+
+  /**
+   * Returns up to count best members, best first.
+   *
+   * @param count maximal number of members
+   * @return best members
+   */
+  public Solution[] best(int count) {
+    final Solution[] result = new Solution[Math.min(count, size)];
+    int filled = 0;
+    for (int bucket = bestBucket; filled < result.length; ++bucket) {
+      for (int slot = bucketHead[bucket]; slot != None && filled < result.length; slot = next[slot]) {
+        result[filled++] = members[slot];
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Remove the oldest of the worst members.
+   *
+   * @return removed member or null if empty
+   */
+  public Solution removeWorst() {
+    if (size == 0) {
+      return null;
+    }
+    final int slot = bucketHead[worstBucket];
+    final Solution removed = members[slot];
+    remove(slot);
+    return removed;
+  }
+
+  private void remove(int slot) {
+    unlink(slot);
+    removeIndex(slot);
+
+    // move the last member into the free slot
+    final int last = --size;
+    if (slot != last) {
+      members[slot] = members[last];
+      fingerprints[slot] = fingerprints[last];
+      next[slot] = next[last];
+      prev[slot] = prev[last];
+      final int bucket = members[slot].getMakespan();
+      if (prev[slot] == None) {
+        bucketHead[bucket] = slot;
+      } else {
+        next[prev[slot]] = slot;
+      }
+      if (next[slot] == None) {
+        bucketTail[bucket] = slot;
+      } else {
+        prev[next[slot]] = slot;
+      }
+      index[indexPosition(last)] = slot;
+    }
+    members[last] = null;
+  }
+
+  /// Append the slot to the tail of its bucket.
+  private void link(int slot) {
+    final int bucket = members[slot].getMakespan();
+    next[slot] = None;
+    prev[slot] = bucketTail[bucket];
+    if (bucketTail[bucket] == None) {
+      bucketHead[bucket] = slot;
+    } else {
+      next[bucketTail[bucket]] = slot;
+    }
+    bucketTail[bucket] = slot;
+    bestBucket = Math.min(bestBucket, bucket);
+    worstBucket = Math.max(worstBucket, bucket);
+  }
+
+  private void unlink(int slot) {
+    final int bucket = members[slot].getMakespan();
+    if (prev[slot] == None) {
+      bucketHead[bucket] = next[slot];
+    } else {
+      next[prev[slot]] = next[slot];
+    }
+    if (next[slot] == None) {
+      bucketTail[bucket] = prev[slot];
+    } else {
+      prev[next[slot]] = prev[slot];
+    }
+
+    if (size == 1) {
+      bestBucket = bucketHead.length;
+      worstBucket = -1;
+      return;
+    }
+    while (bucketHead[bestBucket] == None) {
+      ++bestBucket;
+    }
+    while (bucketHead[worstBucket] == None) {
+      --worstBucket;
+    }
+  }
+
+  private int find(Solution solution, long fingerprint) {
+    for (int pos = hash(fingerprint); index[pos] != None; pos = (pos + 1) & indexMask) {
+      final int slot = index[pos];
+      if (fingerprints[slot] == fingerprint
+          && Arrays.equals(members[slot].getDataUnsafe(), solution.getDataUnsafe())) {
+        return slot;
+      }
+    }
+    return None;
+  }
+
+  private void insertIndex(long fingerprint, int slot) {
+    int pos = hash(fingerprint);
+    while (index[pos] != None) {
+      pos = (pos + 1) & indexMask;
+    }
+    index[pos] = slot;
+  }
+
+  /// Position of the index entry of the given slot.
+  private int indexPosition(int slot) {
+    int pos = hash(fingerprints[slot]);
+    while (index[pos] != slot) {
+      pos = (pos + 1) & indexMask;
+    }
+    return pos;
+  }
+
+  private void removeIndex(int slot) {
+    int free = indexPosition(slot);
+    index[free] = None;
+
+    // shift back entries of the probe sequence behind the free position
+    for (int pos = (free + 1) & indexMask; index[pos] != None; pos = (pos + 1) & indexMask) {
+      final int home = hash(fingerprints[index[pos]]);
+      if (((pos - home) & indexMask) >= ((pos - free) & indexMask)) {
+        index[free] = index[pos];
+        index[pos] = None;
+        free = pos;
+      }
+    }
+  }
+
+  private int hash(long fingerprint) {
+    return (int) (fingerprint ^ (fingerprint >>> 32)) & indexMask;
+  }
+}
@@ -0,0 +1,81 @@
+package rcpsp;
+
+/**
+ * Makes an activity list precedence feasible in O(n + |E|).
+ * <p>
+ * The list is scanned from front to back. A job whose predecessors are all
+ * placed keeps its relative position, any other job waits and is inserted
+ * directly behind the last of its predecessors. A list which is already
+ * feasible is left unchanged.
+ */
+public class PrecedenceRepair {
+  private final Instance instance;
+  private final int[] predecessorCount;
+  private final int[] remaining;
+  private final int[] queue;
+  private final int[] repaired;
+  private final JobSet waiting;
+
+  /**
+   * Construct.
+   *
+   * @param instance instance whose activity lists are repaired
+   */
+  public PrecedenceRepair(Instance instance) {
+    final int n = instance.n();
+    this.instance = instance;
+    this.predecessorCount = new int[n];
+    for (int i = 0; i < n; ++i) {
+      predecessorCount[i] = instance.predecessorStart[i + 1] - instance.predecessorStart[i];
+    }
+    this.remaining = new int[n];
+    this.queue = new int[n];
+    this.repaired = new int[n];
+    this.waiting = new JobSet(n);
+  }
+
+  public Instance getInstance() {
+    return instance;
+  }
+
+  /**
+   * Reorder the activity list in place so that every job comes after all of
+   * its predecessors.
+   *
+   * @param activityList permutation of all jobs
+   */
+  public void repair(int[] activityList) {
+    final int n = activityList.length;
+    System.arraycopy(predecessorCount, 0, remaining, 0, n);
+    waiting.clear();
+
+    int size = 0;
+    for (int i = 0; i < n; ++i) {
+      int job = activityList[i];
+      if (remaining[job] > 0) {
+        waiting.add(job);
+        continue;
+      }
+
+      // place the job and every waiting job it releases
+      int head = 0;
+      int tail = 0;
+      queue[tail++] = job;
+      while (head < tail) {
+        int current = queue[head++];
+        repaired[size++] = current;
+
+        int end = instance.successorStart[current + 1];
+        for (int s = instance.successorStart[current]; s < end; ++s) {
+          int succ = instance.successorList[s];
+          if (--remaining[succ] == 0 && waiting.contains(succ)) {
+            queue[tail++] = succ;
+          }
+        }
+      }
+    }
+
+    assert size == n : "precedence graph contains a cycle";
+    System.arraycopy(repaired, 0, activityList, 0, n);
+  }
+}
@@ -0,0 +1,56 @@
+package rcpsp;
+
+/**
+ * Feasibility check of a window of segments of a ColumnProfile.
+ * <p>
+ * The vectorized kernel rcpsp.VectorKernel uses the incubating Vector API and
+ * is kept in the separate source root src-vector, because compiling and
+ * running it requires --add-modules jdk.incubator.vector. If its class is not
+ * on the class path or the module is missing, the scalar kernel is used.
+ */
+public interface ProfileKernel {
+
+  /**
+   * Scalar kernel, one segment and one resource at a time.
+   */
+  ProfileKernel Scalar = new ProfileKernel() {
+    @Override
+    public int firstConflict(int[][] available, int[] demand, int from, int to) {
+      for (int seg = from; seg < to; ++seg) {
+        for (int k = 0; k < demand.length; ++k) {
+          if (available[k][seg] < demand[k]) {
+            return seg;
+          }
+        }
+      }
+      return to;
+    }
+
+    @Override
+    public String toString() {
+      return "scalar";
+    }
+  };
+
+  /**
+   * Returns the first segment in [from, to) in which some resource has less
+   * units left than demanded, to if the demand fits into all of them.
+   *
+   * @param available free units per resource and segment, available[k][segment]
+   * @param demand    demand per resource
+   * @param from      first segment of the window
+   * @param to        end of the window (exclusive)
+   */
+  int firstConflict(int[][] available, int[] demand, int from, int to);
+
+  /**
+   * Returns the vectorized kernel if it can be loaded, the scalar one otherwise.
+   */
+  static ProfileKernel load() {
+    try {
+      return (ProfileKernel) Class.forName("rcpsp.VectorKernel").getDeclaredConstructor().newInstance();
+    } catch (ReflectiveOperationException | LinkageError e) {
+      return Scalar;
+    }
+  }
+}
@@ -3,39 +3,94 @@ package rcpsp;
 import java.util.Random;
 
 public class RandomMutation {
-  private static final double Probability = 0.40;
+  /// Scratch buffer of the context holding the list of an attempt.
+  private static final int AttemptBuffer = 3;
 
-  public static Solution mutate(Solution solution, Instance instance, int maxMakespan) {
-    Random rng = App.getRandom();
-    if (rng.nextDouble() > Probability) {
+  public static Solution mutate(Solution solution, Context context) {
+    Instance instance = context.instance;
+    Random rng = context.getRandom();
+    if (rng.nextDouble() > context.options.mutationRate) {
       return solution;
     }
 
-    int[] solActivityList = Solver.transformSolutionIntoActivityList(solution);
-    var copy = new ArrayListEx<Integer>(solActivityList.length);
-    for (int i = 0; i < solActivityList.length; ++i) {
-      copy.add(solActivityList[i]);
+    int[] activityList = Solver.transformSolutionIntoActivityList(solution);
+
+    // the serial decoders need precedence feasible lists, the parallel SGS
+    // takes any list
+    Decoder decoder = context.getDecoder();
+    boolean serial = decoder == Decoder.Serial || decoder == Decoder.Simd;
+
+    // all attempts share the list in front of their first swap point
+    if (decoder == Decoder.Serial) {
+      IncrementalDecoder incremental = context.getIncrementalDecoder();
+      incremental.reset(activityList);
+      decoder = incremental;
     }
 
+    int[] attempt = context.getIntBuffer(AttemptBuffer, instance.n());
     int counter = 0;
-    while (counter < 60) {
+    while (counter < context.options.mutationAttempts) {
       int swapPoint1 = rng.nextInt(instance.n());
       int swapPoint2 = rng.nextInt(instance.n());
-      int temp1 = copy.get(swapPoint1);
-      int temp2 = copy.get(swapPoint2);
-      copy.set(swapPoint1, temp2);
-      copy.set(swapPoint2, temp1);
+      if (serial && !keepsPrecedence(instance, activityList, swapPoint1, swapPoint2)) {
+        ++counter;
+        continue;
+      }
 
-      Solution newSolution = Solver.ess(copy, instance, maxMakespan);
-      if (Solver.checkSolution(newSolution, instance)) {
+      System.arraycopy(activityList, 0, attempt, 0, activityList.length);
+      attempt[swapPoint1] = activityList[swapPoint2];
+      attempt[swapPoint2] = activityList[swapPoint1];
+
+      // NB: Only the accepted attempt needs a list of its own, solutions of
+      // the decode cache have one already.
+      Solution newSolution = Solver.decodeScratch(attempt, context, decoder);
+      boolean scratch = newSolution.getDecodeOrder() == attempt;
+      if (Solver.checkSolution(newSolution, context)) {
+        if (scratch) {
+          int[] copy = context.newActivityList();
+          System.arraycopy(attempt, 0, copy, 0, attempt.length);
+          newSolution.setDecodeOrder(copy);
+        }
         return newSolution;
       }
-
-      // swap back
-      copy.set(swapPoint1, temp1);
-      copy.set(swapPoint2, temp2);
+      if (scratch) {
+        newSolution.setDecodeOrder(null);
+        context.recycle(newSolution);
+      }
       ++counter;
     }
     return solution;
   }
-}
\ No newline at end of file
+
+  /**
+   * Check whether swapping two positions keeps an activity list precedence
+   * feasible: none of the jobs from the first to the second position may
+   * have to precede the job moved to the front, and the job moved to the
+   * back may not have to precede any of them.
+   *
+   * @param instance     preprocessed instance
+   * @param activityList precedence feasible list
+   * @param i            first position
+   * @param j            second position
+   * @return true if the swapped list is precedence feasible
+   */
+  static boolean keepsPrecedence(Instance instance, int[] activityList, int i, int j) {
+    int front = Math.min(i, j);
+    int back = Math.max(i, j);
+    int forward = activityList[back];
+    int backward = activityList[front];
+    if (front == back) {
+      return true;
+    }
+    if (instance.mustPrecede(backward, forward)) {
+      return false;
+    }
+    for (int k = front + 1; k < back; ++k) {
+      int job = activityList[k];
+      if (instance.mustPrecede(job, forward) || instance.mustPrecede(backward, job)) {
+        return false;
+      }
+    }
+    return true;
+  }
+}
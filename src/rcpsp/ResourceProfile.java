@@ -0,0 +1,207 @@
+package rcpsp;
+
+import java.util.Arrays;
+
+/**
+ * Remaining capacity of every resource over time, stored as a step function.
+ * Only the points in time at which the capacity changes are kept, so the size
+ * of the profile depends on the number of scheduled jobs and not on the
+ * length of the planning horizon.
+ */
+public class ResourceProfile {
+  private final Instance instance;
+  private final int[] capacity;
+  private final int[] processingTime;
+  private final int[] demandRows;
+  private final int r;
+
+  /**
+   * Start of each segment, ascending. times[0] is always 0 and the last
+   * segment reaches to infinity.
+   */
+  private int[] times;
+
+  /**
+   * Free units of each resource per segment, row major (segment * r + k).
+   */
+  private int[] available;
+
+  private int segments;
+
+  /**
+   * Construct.
+   *
+   * @param instance instance whose jobs are going to be scheduled
+   */
+  public ResourceProfile(Instance instance) {
+    this.instance = instance;
+    this.capacity = instance.resources;
+    this.processingTime = instance.processingTime;
+    this.demandRows = instance.demandRows;
+    this.r = instance.r();
+    this.times = new int[2 * instance.n() + 2];
+    this.available = new int[times.length * r];
+    reset();
+  }
+
+  public Instance getInstance() {
+    return instance;
+  }
+
+  /**
+   * Release all resources again.
+   */
+  public void reset() {
+    segments = 1;
+    times[0] = 0;
+    System.arraycopy(capacity, 0, available, 0, r);
+  }
+
+  /**
+   * Copy the state of the profile into a buffer.
+   *
+   * @param buffer buffer of an earlier save to reuse, may be null
+   * @return buffer holding the state, a new one if the given one is too small
+   */
+  public int[] save(int[] buffer) {
+    int size = 1 + segments * (r + 1);
+    if (buffer == null || buffer.length < size) {
+      buffer = new int[size];
+    }
+    buffer[0] = segments;
+    System.arraycopy(times, 0, buffer, 1, segments);
+    System.arraycopy(available, 0, buffer, 1 + segments, segments * r);
+    return buffer;
+  }
+
+  /**
+   * Return to a saved state.
+   *
+   * @param buffer buffer filled by save
+   */
+  public void restore(int[] buffer) {
+    segments = buffer[0];
+    if (times.length < segments) {
+      times = new int[2 * segments];
+      available = new int[times.length * r];
+    }
+    System.arraycopy(buffer, 1, times, 0, segments);
+    System.arraycopy(buffer, 1 + segments, available, 0, segments * r);
+  }
+
+  /**
+   * Earliest point in time not before est at which a job can be processed for
+   * the given duration without exceeding any resource.
+   *
+   * @param job job to be scheduled
+   * @param est earliest start time with respect to the predecessors
+   * @return earliest feasible start time
+   */
+  public int earliestStart(int job, int est) {
+    int duration = processingTime[job];
+    if (duration == 0) {
+      return est;
+    }
+
+    int demand = job * r;
+    int start = est;
+    int seg = segmentOf(start);
+    int end = start + duration;
+    while (seg < segments && times[seg] < end) {
+      if (fitsSegment(seg, demand)) {
+        ++seg;
+      } else {
+        // jump behind the conflicting segment
+        // NB: The last segment always fits for a valid instance.
+        ++seg;
+        start = times[seg];
+        end = start + duration;
+      }
+    }
+    return start;
+  }
+
+  /**
+   * Check whether a job fits into the profile at the given start time.
+   *
+   * @param job   job to be checked
+   * @param start start time of the job
+   * @return true if no resource is exceeded
+   */
+  public boolean fits(int job, int start) {
+    int duration = processingTime[job];
+    if (duration == 0) {
+      return true;
+    }
+
+    int demand = job * r;
+    int end = start + duration;
+    for (int seg = segmentOf(start); seg < segments && times[seg] < end; ++seg) {
+      if (!fitsSegment(seg, demand)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Occupy the resources of a job.
+   *
+   * @param job   job to be scheduled
+   * @param start start time of the job
+   */
+  public void add(int job, int start) {
+    int duration = processingTime[job];
+    if (duration == 0) {
+      return;
+    }
+
+    int demand = job * r;
+    int first = split(start);
+    int last = split(start + duration);
+    for (int seg = first; seg < last; ++seg) {
+      int offset = seg * r;
+      for (int k = 0; k < r; ++k) {
+        available[offset + k] -= demandRows[demand + k];
+      }
+    }
+  }
+
+  /// Check a segment against the demand row starting at index demand.
+  private boolean fitsSegment(int seg, int demand) {
+    int offset = seg * r;
+    for (int k = 0; k < r; ++k) {
+      if (available[offset + k] < demandRows[demand + k]) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /// Index of the segment containing t.
+  private int segmentOf(int t) {
+    int index = Arrays.binarySearch(times, 0, segments, t);
+    return index >= 0 ? index : -index - 2;
+  }
+
+  /// Make sure a segment starts at t and return its index.
+  private int split(int t) {
+    int seg = segmentOf(t);
+    if (times[seg] == t) {
+      return seg;
+    }
+
+    if (segments == times.length) {
+      times = Arrays.copyOf(times, 2 * times.length);
+      available = Arrays.copyOf(available, times.length * r);
+    }
+
+    ++seg;
+    System.arraycopy(times, seg, times, seg + 1, segments - seg);
+    System.arraycopy(available, seg * r, available, (seg + 1) * r, (segments - seg) * r);
+    times[seg] = t;
+    System.arraycopy(available, (seg - 1) * r, available, seg * r, r);
+    ++segments;
+    return seg;
+  }
+}
@@ -0,0 +1,61 @@
+package rcpsp;
+
+/**
+ * Outcome of a run.
+ */
+public class Result {
+
+  /**
+   * Best solution found.
+   */
+  public final Solution solution;
+
+  /**
+   * Number of generations executed (summed over all islands).
+   */
+  public final long generations;
+
+  /**
+   * Milliseconds from the start of the run until the best makespan was found.
+   */
+  public final long timeToBest;
+
+  /**
+   * Milliseconds the run took.
+   */
+  public final long elapsed;
+
+  /**
+   * Lower bound on the makespan of the instance.
+   */
+  public final int lowerBound;
+
+  /**
+   * Counters of the decode cache, null if it was disabled.
+   */
+  public final DecodeCache.Stats decodeCacheStats;
+
+  public Result(Solution solution, long generations, long timeToBest, long elapsed, int lowerBound,
+                DecodeCache.Stats decodeCacheStats) {
+    this.solution = solution;
+    this.generations = generations;
+    this.timeToBest = timeToBest;
+    this.elapsed = elapsed;
+    this.lowerBound = lowerBound;
+    this.decodeCacheStats = decodeCacheStats;
+  }
+
+  public int getMakespan() {
+    return solution.getMakespan();
+  }
+
+  /**
+   * Relative distance of the makespan to the lower bound, 0 if the solution is
+   * provably optimal.
+   *
+   * @return (makespan - lowerBound) / lowerBound
+   */
+  public double getGap() {
+    return lowerBound == 0 ? 0.0 : (double) (getMakespan() - lowerBound) / lowerBound;
+  }
+}
@@ -0,0 +1,435 @@
+package rcpsp;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Local HTTP service that solves instances in one warm JVM.
+ * <p>
+ * POST /solve?time_ms=&lt;ms&gt;&amp;seed=&lt;seed&gt; takes an instance in the
+ * .RCP format or as JSON (see Io.parseJsonInstance) as body. Further query
+ * parameters are passed on as solver options, e.g. decoder=parallel. The solve
+ * is queued for a fixed pool of solver threads; a full queue is answered with
+ * 503. The deadline counts from the arrival of the request, time spent in the
+ * queue included. The response is a stream of JSON lines: "queued", every
+ * improved "incumbent" and finally the "result" or an "error".
+ * <p>
+ * GET /metrics returns the queue depth, the number of running solves, the
+ * request counters and percentiles of the recent queue waits and latencies.
+ * <p>
+ * usage: java rcpsp.Server [--port &lt;port&gt;] [--workers &lt;n&gt;] [--queue &lt;n&gt;] [--max-time &lt;ms&gt;]
+ */
+public class Server {
+
+  private static final String Usage =
+      "usage: java rcpsp.Server [--port <port>] [--workers <n>] [--queue <n>] [--max-time <ms>]";
+
+  /// Largest accepted request body.
+  private static final int MaxBody = 16 << 20;
+
+  /// Query parameters passed on to Options.parse as --name value.
+  // NB: Islands and the batch mode are left out. They run on threads beside
+  // the solver pool, and islands only look at the deadline between epochs.
+  private static final Set<String> SolverOptions = Set.of("decoder", "justify", "decode-cache", "check-interval",
+      "stagnation", "min-diversity", "elites");
+
+  /// Largest decode cache of a request.
+  private static final int MaxDecodeCache = 1 << 20;
+
+  /// Marks the end of the events of a job, compared by identity.
+  private static final String End = new String("end");
+
+  private final HttpServer http;
+  private final ThreadPoolExecutor workers;
+  private final ExecutorService io;
+  private final long maxTime;
+
+  private final AtomicLong accepted = new AtomicLong();
+  private final AtomicLong rejected = new AtomicLong();
+  private final AtomicLong completed = new AtomicLong();
+  private final AtomicLong failed = new AtomicLong();
+  private final AtomicLong expired = new AtomicLong();
+  private final Latencies queueWaits = new Latencies(1024);
+  private final Latencies latencies = new Latencies(1024);
+
+  /**
+   * Construct and bind, call start() to serve.
+   *
+   * @param port          port on localhost, 0 picks a free one
+   * @param workerCount   number of concurrent solves
+   * @param queueCapacity number of solves waiting for a worker
+   * @param maxTime       largest time limit of a request in milliseconds
+   * @throws IOException if the port cannot be bound
+   */
+  public Server(int port, int workerCount, int queueCapacity, long maxTime) throws IOException {
+    this.maxTime = maxTime;
+    final AtomicInteger solverThreads = new AtomicInteger();
+    this.workers = new ThreadPoolExecutor(workerCount, workerCount, 0, TimeUnit.MILLISECONDS,
+        new ArrayBlockingQueue<>(queueCapacity), runnable -> {
+          final Thread thread = new Thread(runnable, "solver-" + solverThreads.incrementAndGet());
+          thread.setDaemon(true);
+          return thread;
+        });
+    // NB: Requests mostly wait for events of their solve, so they get cheap
+    // threads of their own. Without virtual threads (Java 21) a cached pool
+    // of platform threads is the nearest thing.
+    final AtomicInteger ioThreads = new AtomicInteger();
+    this.io = Executors.newCachedThreadPool(runnable -> {
+      final Thread thread = new Thread(runnable, "http-" + ioThreads.incrementAndGet());
+      thread.setDaemon(true);
+      return thread;
+    });
+
+    this.http = HttpServer.create(new InetSocketAddress("localhost", port), 0);
+    http.setExecutor(io);
+    http.createContext("/solve", this::solve);
+    http.createContext("/metrics", this::metrics);
+  }
+
+  public void start() {
+    http.start();
+  }
+
+  public int getPort() {
+    return http.getAddress().getPort();
+  }
+
+  /**
+   * Stop accepting requests, cancel queued solves and wait for the running
+   * ones, which end by their deadline.
+   *
+   * @param delay seconds to wait for open exchanges once the solves ended
+   * @throws InterruptedException if interrupted while waiting
+   */
+  public void stop(int delay) throws InterruptedException {
+    workers.shutdown();
+    final List<Runnable> queued = new ArrayList<>();
+    workers.getQueue().drainTo(queued);
+    for (Runnable job : queued) {
+      ((Job) job).abort("server is stopping");
+    }
+    workers.awaitTermination(maxTime, TimeUnit.MILLISECONDS);
+    http.stop(delay);
+    io.shutdown();
+  }
+
+  /**
+   * A queued solve. Runs on a solver thread and hands its events as JSON
+   * lines to the thread of the request.
+   */
+  private class Job implements Runnable {
+    final Instance instance;
+    final Options options;
+    final long arrival;
+    final long deadline;
+    final BlockingQueue<String> events = new LinkedBlockingQueue<>();
+
+    private volatile boolean cancelled;
+    private volatile SolverHandle handle;
+
+    Job(Instance instance, Options options, long arrival, long deadline) {
+      this.instance = instance;
+      this.options = options;
+      this.arrival = arrival;
+      this.deadline = deadline;
+    }
+
+    /// Ends a job that will not run.
+    void abort(String message) {
+      failed.incrementAndGet();
+      events.add(error(message));
+      events.add(End);
+    }
+
+    /// Stops the job if the client has gone away.
+    void cancel() {
+      cancelled = true;
+      final SolverHandle running = handle;
+      if (running != null) {
+        running.cancel();
+      }
+    }
+
+    @Override
+    public void run() {
+      final long start = System.currentTimeMillis();
+      queueWaits.add(start - arrival);
+      try {
+        if (cancelled) {
+          return;
+        }
+        if (start >= deadline) {
+          expired.incrementAndGet();
+          events.add(error("deadline passed in queue"));
+          return;
+        }
+
+        options.timeLimit = deadline - start;
+        handle = new SolverHandle(options, (incumbent, elapsed) -> events.add(
+            String.format("{\"type\":\"incumbent\",\"makespan\":%d,\"elapsed_ms\":%d,\"start_times\":%s}",
+                incumbent.getMakespan(), elapsed, Arrays.toString(incumbent.getDataUnsafe()).replace(" ", ""))));
+        if (cancelled) {
+          handle.cancel();
+        }
+        final Result result = Solver.run(instance, options, handle);
+        completed.incrementAndGet();
+        events.add(String.format("{\"type\":\"result\",\"makespan\":%d,\"lower_bound\":%d,\"generations\":%d,"
+                + "\"time_to_best_ms\":%d,\"solve_ms\":%d,\"queue_ms\":%d,\"start_times\":%s}",
+            result.getMakespan(), result.lowerBound, result.generations, result.timeToBest, result.elapsed,
+            start - arrival, Arrays.toString(result.solution.getDataUnsafe()).replace(" ", "")));
+      } catch (Throwable e) {
+        // NB: Errors too, the client waits for an event either way.
+        failed.incrementAndGet();
+        events.add(error(e.getMessage() != null ? e.getMessage() : e.toString()));
+      } finally {
+        latencies.add(System.currentTimeMillis() - arrival);
+        events.add(End);
+      }
+    }
+  }
+
+  private void solve(HttpExchange exchange) throws IOException {
+    final long arrival = System.currentTimeMillis();
+    try (exchange) {
+      if (!"POST".equals(exchange.getRequestMethod())) {
+        send(exchange, 405, error("use POST"));
+        return;
+      }
+
+      final Job job;
+      try {
+        final Map<String, String> query = parseQuery(exchange.getRequestURI().getRawQuery());
+        final long timeLimit = Long.parseLong(query.getOrDefault("time_ms", "1000"));
+        if (timeLimit < 1 || timeLimit > maxTime) {
+          throw new IllegalArgumentException("time_ms must be between 1 and " + maxTime);
+        }
+        final Options options = parseOptions(query);
+        final byte[] body = readBody(exchange.getRequestBody());
+        final Instance instance = parseInstance(body, exchange.getRequestHeaders().getFirst("Content-Type"));
+        job = new Job(instance, options, arrival, arrival + timeLimit);
+      } catch (IllegalArgumentException | Io.Error e) {
+        send(exchange, 400, error(String.valueOf(e.getMessage())));
+        return;
+      }
+
+      try {
+        workers.execute(job);
+      } catch (RejectedExecutionException e) {
+        rejected.incrementAndGet();
+        send(exchange, 503, error("queue is full"));
+        return;
+      }
+      accepted.incrementAndGet();
+
+      exchange.getResponseHeaders().set("Content-Type", "application/x-ndjson");
+      exchange.sendResponseHeaders(200, 0);
+      final OutputStream out = exchange.getResponseBody();
+      try {
+        writeLine(out, String.format("{\"type\":\"queued\",\"queue_depth\":%d}", workers.getQueue().size()));
+        for (String event = job.events.take(); event != End; event = job.events.take()) {
+          writeLine(out, event);
+        }
+      } catch (IOException e) {
+        job.cancel();
+      } catch (InterruptedException e) {
+        job.cancel();
+        Thread.currentThread().interrupt();
+      }
+    }
+  }
+
+  private void metrics(HttpExchange exchange) throws IOException {
+    try (exchange) {
+      if (!"GET".equals(exchange.getRequestMethod())) {
+        send(exchange, 405, error("use GET"));
+        return;
+      }
+      send(exchange, 200, String.format("{\"queue_depth\":%d,\"queue_capacity\":%d,\"running\":%d,\"workers\":%d,"
+              + "\"accepted\":%d,\"rejected\":%d,\"completed\":%d,\"failed\":%d,\"expired\":%d,"
+              + "\"queue_ms\":%s,\"latency_ms\":%s}",
+          workers.getQueue().size(), workers.getQueue().size() + workers.getQueue().remainingCapacity(),
+          workers.getActiveCount(), workers.getMaximumPoolSize(), accepted.get(), rejected.get(),
+          completed.get(), failed.get(), expired.get(), queueWaits.toJson(), latencies.toJson()));
+    }
+  }
+
+  /**
+   * Turn the query parameters into options, seed and the whitelisted solver
+   * options are taken. The time limit is set once the solve starts.
+   */
+  private static Options parseOptions(Map<String, String> query) {
+    final List<String> args = new ArrayList<>(List.of("-", "-", "0", query.getOrDefault("seed", "0")));
+    for (Map.Entry<String, String> entry : query.entrySet()) {
+      final String name = entry.getKey();
+      if (name.equals("seed") || name.equals("time_ms")) {
+        continue;
+      }
+      if (!SolverOptions.contains(name)) {
+        throw new IllegalArgumentException("Unknown parameter " + name);
+      }
+      args.add("--" + name);
+      args.add(entry.getValue());
+    }
+    final Options options = Options.parse(args.toArray(new String[0]));
+    if (options.decodeCacheSize > MaxDecodeCache) {
+      throw new IllegalArgumentException("decode-cache must not exceed " + MaxDecodeCache);
+    }
+    return options;
+  }
+
+  /**
+   * Parse and check an instance, JSON if announced by the content type or
+   * starting with '{', the .RCP format otherwise.
+   *
+   * @throws Io.Error                 if the instance is malformed, too large,
+   *                                  cyclic or cannot be solved
+   * @throws IllegalArgumentException if the instance has no jobs
+   */
+  static Instance parseInstance(byte[] body, String contentType) {
+    int first = 0;
+    while (first < body.length && body[first] <= ' ') {
+      ++first;
+    }
+    final boolean json = (contentType != null && contentType.contains("json"))
+        || (first < body.length && body[first] == '{');
+    final Instance instance = json
+        ? Io.parseJsonInstance(new String(body, StandardCharsets.UTF_8), "request")
+        : Io.parseInstance(body, Paths.get("request"));
+
+    if (instance.n() == 0) {
+      throw new IllegalArgumentException("instance has no jobs");
+    }
+    return instance;
+  }
+
+  private static Map<String, String> parseQuery(String query) {
+    final Map<String, String> parameters = new LinkedHashMap<>();
+    if (query == null || query.isEmpty()) {
+      return parameters;
+    }
+    for (String pair : query.split("&")) {
+      final int eq = pair.indexOf('=');
+      final String name = URLDecoder.decode(eq < 0 ? pair : pair.substring(0, eq), StandardCharsets.UTF_8);
+      final String value = eq < 0 ? "" : URLDecoder.decode(pair.substring(eq + 1), StandardCharsets.UTF_8);
+      parameters.put(name, value);
+    }
+    return parameters;
+  }
+
+  private static byte[] readBody(InputStream in) throws IOException {
+    final byte[] body = in.readNBytes(MaxBody + 1);
+    if (body.length > MaxBody) {
+      throw new IllegalArgumentException("body exceeds " + MaxBody + " bytes");
+    }
+    return body;
+  }
+
+  private static String error(String message) {
+    return "{\"type\":\"error\",\"message\":" + Json.quote(message) + "}";
+  }
+
+  private static void send(HttpExchange exchange, int status, String json) throws IOException {
+    final byte[] bytes = (json + "\n").getBytes(StandardCharsets.UTF_8);
+    exchange.getResponseHeaders().set("Content-Type", "application/json");
+    exchange.sendResponseHeaders(status, bytes.length);
+    exchange.getResponseBody().write(bytes);
+  }
+
+  private static void writeLine(OutputStream out, String line) throws IOException {
+    out.write((line + "\n").getBytes(StandardCharsets.UTF_8));
+    out.flush();
+  }
+
+  /**
+   * The most recent durations of a kind, in milliseconds.
+   */
+  static class Latencies {
+    private final long[] window;
+    private long count;
+
+    Latencies(int size) {
+      this.window = new long[size];
+    }
+
+    synchronized void add(long millis) {
+      window[(int) (count++ % window.length)] = millis;
+    }
+
+    /// Returns count, p50, p90, p99 and max of the window as JSON object.
+    synchronized String toJson() {
+      final long[] sorted = Arrays.copyOf(window, (int) Math.min(count, window.length));
+      Arrays.sort(sorted);
+      return String.format("{\"count\":%d,\"p50\":%d,\"p90\":%d,\"p99\":%d,\"max\":%d}", count,
+          percentile(sorted, 0.50), percentile(sorted, 0.90), percentile(sorted, 0.99),
+          sorted.length == 0 ? 0 : sorted[sorted.length - 1]);
+    }
+
+    private static long percentile(long[] sorted, double p) {
+      return sorted.length == 0 ? 0 : sorted[(int) Math.ceil(p * sorted.length) - 1];
+    }
+  }
+
+  public static void main(String[] args) throws IOException {
+    int port = 8080;
+    int workerCount = Runtime.getRuntime().availableProcessors();
+    int queueCapacity = 64;
+    long maxTime = 600_000;
+    try {
+      if (args.length % 2 != 0) {
+        throw new IllegalArgumentException("Wrong number of arguments");
+      }
+      for (int i = 0; i < args.length; i += 2) {
+        switch (args[i]) {
+          case "--port":
+            port = Integer.parseInt(args[i + 1]);
+            break;
+          case "--workers":
+            workerCount = Integer.parseInt(args[i + 1]);
+            break;
+          case "--queue":
+            queueCapacity = Integer.parseInt(args[i + 1]);
+            break;
+          case "--max-time":
+            maxTime = Long.parseLong(args[i + 1]);
+            break;
+          default:
+            throw new IllegalArgumentException("Unknown option " + args[i]);
+        }
+      }
+      if (workerCount < 1 || queueCapacity < 1 || maxTime < 1) {
+        throw new IllegalArgumentException("--workers, --queue and --max-time must be at least 1");
+      }
+    } catch (IllegalArgumentException e) {
+      System.out.println(Usage);
+      return;
+    }
+
+    final Server server = new Server(port, workerCount, queueCapacity, maxTime);
+    server.start();
+    System.out.println("Listening on http://localhost:" + server.getPort());
+  }
+}
@@ -0,0 +1,37 @@
+package rcpsp;
+
+/**
+ * Serial SGS on a ColumnProfile, whose window checks are done by the
+ * vectorized ProfileKernel when it is available. Gives the same schedules as
+ * Solver.ess.
+ */
+public class SimdSgs {
+
+  /**
+   * Decode an activity list.
+   *
+   * @param activityList jobs in order of priority, kept by the solution
+   * @param context      context of the solve
+   * @return schedule
+   */
+  public static Solution decode(int[] activityList, Context context) {
+    Instance instance = context.instance;
+    Metrics metrics = context.getMetrics();
+    long begin = metrics != null ? System.nanoTime() : 0;
+    Solution solution = context.newSolution();
+    ColumnProfile profile = context.getColumnProfile();
+
+    for (int job : activityList) {
+      int startTime = Solver.getEarliestStartTime(job, instance, solution);
+      startTime = profile.earliestStart(job, startTime);
+      solution.set(job, startTime);
+      profile.add(job, startTime);
+    }
+    solution.setDecodeOrder(activityList);
+
+    if (metrics != null) {
+      metrics.decoded(System.nanoTime() - begin);
+    }
+    return solution;
+  }
+}
@@ -1,20 +1,56 @@
 package rcpsp;
 
+import java.util.Arrays;
+
 public class Solution {
   private final int[] data;
   private final Instance instance;
   private int fitnessCache;
 
+  /// Order in which the decoder scheduled the jobs, null if unknown.
+  private int[] decodeOrder;
+
+  /// Jobs sorted by start time, computed on first use.
+  private volatile int[] activityList;
+
   public Solution(int size, Instance instance) {
     this.data = new int[size];
     this.instance = instance;
     this.fitnessCache = -1;
   }
 
+  /// Returns a copy that shares no state with this solution.
+  public Solution copy() {
+    Solution copy = new Solution(data.length, instance);
+    System.arraycopy(data, 0, copy.data, 0, data.length);
+    copy.fitnessCache = fitnessCache;
+    copy.decodeOrder = decodeOrder != null ? decodeOrder.clone() : null;
+    return copy;
+  }
+
+  /// Clear the solution for reuse: all start times are 0 again, as decoders
+  /// read the start times of unscheduled predecessors. The decode order and
+  /// the activity list go back to the pool as well.
+  void recycle(SolutionPool pool) {
+    if (decodeOrder != null) {
+      pool.releaseList(decodeOrder);
+    }
+    int[] list = activityList;
+    if (list != null) {
+      pool.releaseList(list);
+    }
+    Arrays.fill(data, 0);
+    fitnessCache = -1;
+    decodeOrder = null;
+    activityList = null;
+  }
+
   public int get(int index) {
     return data[index];
   }
 
+  /// Set a start time. The cached activity list is left alone, every decoder
+  /// invalidates it with setDecodeOrder once all start times are set.
   public void set(int index, int value) {
     data[index] = value;
     // Invalidate cache
@@ -26,6 +62,50 @@ public class Solution {
     return data;
   }
 
+  /// Remember the activity list this solution was decoded from. The list is
+  /// kept by reference and must not be modified afterwards.
+  public void setDecodeOrder(int[] decodeOrder) {
+    this.decodeOrder = decodeOrder;
+    activityList = null;
+  }
+
+  /// Returns the activity list this solution was decoded from, may be null.
+  // NOTE: Do not modify the returned list!
+  public int[] getDecodeOrder() {
+    return decodeOrder;
+  }
+
+  /// Returns the jobs sorted by start time. Jobs starting at the same time keep
+  /// the order in which they were decoded, or their job order if the decode
+  /// order is unknown.
+  // NOTE: Do not modify the returned list!
+  public int[] getActivityList() {
+    int[] list = activityList;
+    if (list == null) {
+      list = sortByStartTime();
+      activityList = list;
+    }
+    return list;
+  }
+
+  private int[] sortByStartTime() {
+    // Counting sort over the start times
+    int[] count = new int[getMakespan() + 2];
+    for (int i = 0; i < data.length; ++i) {
+      ++count[data[i] + 1];
+    }
+    for (int t = 1; t < count.length; ++t) {
+      count[t] += count[t - 1];
+    }
+
+    int[] list = new int[data.length];
+    for (int i = 0; i < data.length; ++i) {
+      int job = decodeOrder != null ? decodeOrder[i] : i;
+      list[count[data[job]]++] = job;
+    }
+    return list;
+  }
+
   public int getMakespan() {
     if (fitnessCache == -1) {
       fitnessCache = Fitness.get(data, instance);
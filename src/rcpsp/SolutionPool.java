@@ -0,0 +1,69 @@
+package rcpsp;
+
+/**
+ * Recycles the solutions of one context and the activity lists they were
+ * decoded from, so the steady state of the genetic algorithm allocates
+ * (almost) nothing.
+ * <p>
+ * A solution may only be released if nothing refers to it anymore: it has
+ * left its population, is not the incumbent of the run and is not held by a
+ * decode cache or another population. Both stacks are bounded, surplus
+ * releases are left to the garbage collector.
+ */
+public class SolutionPool {
+  private static final int Capacity = 32;
+
+  private final Instance instance;
+  private final Solution[] solutions = new Solution[Capacity];
+  private int solutionCount;
+  private final int[][] lists = new int[Capacity][];
+  private int listCount;
+
+  /**
+   * Construct.
+   *
+   * @param instance instance of the solutions
+   */
+  public SolutionPool(Instance instance) {
+    this.instance = instance;
+  }
+
+  /// Returns a solution with all start times 0.
+  public Solution acquire() {
+    if (solutionCount == 0) {
+      return new Solution(instance.n(), instance);
+    }
+    final Solution solution = solutions[--solutionCount];
+    solutions[solutionCount] = null;
+    return solution;
+  }
+
+  /// Returns a buffer for an activity list, its contents are undefined.
+  public int[] acquireList() {
+    if (listCount == 0) {
+      return new int[instance.n()];
+    }
+    final int[] list = lists[--listCount];
+    lists[listCount] = null;
+    return list;
+  }
+
+  /**
+   * Take back a solution and its activity lists.
+   *
+   * @param solution solution nothing refers to anymore
+   */
+  public void release(Solution solution) {
+    solution.recycle(this);
+    if (solutionCount < Capacity) {
+      solutions[solutionCount++] = solution;
+    }
+  }
+
+  /// Take back an activity list nothing refers to anymore.
+  public void releaseList(int[] list) {
+    if (listCount < Capacity && list.length == instance.n()) {
+      lists[listCount++] = list;
+    }
+  }
+}
@@ -2,13 +2,15 @@ package rcpsp;
 
 import java.nio.file.Paths;
 import java.util.*;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
 
 /**
  * Solver for the RCPSP. Solves it by using genetic algorithm
  **/
 public class Solver {
-  private static final Map<Integer, ArrayList<Integer>> predecessorCache = new HashMap<>();
-
   /**
    * Method calculates the earlist starttime of a job by
    * looking at the precedence constraints
@@ -18,25 +20,13 @@ public class Solver {
    * @param solution
    * @return earliest start time of job i
    */
-  private static int getEarliestStartTime(int jobNr, Instance instance, Solution solution) {
-    ArrayList<Integer> pred = predecessorCache.get(jobNr);
-    if (pred == null) {
-      // find predecessors of j
-      pred = new ArrayList<>(4);
-      for (int i = 0; i < instance.successors.length; ++i) {
-        for (int p = 0; p < instance.successors[i].length; ++p) {
-          if (instance.successors[i][p] == jobNr) {
-            pred.add(i);
-          }
-        }
-      }
-      predecessorCache.put(jobNr, pred);
-    }
-
+  static int getEarliestStartTime(int jobNr, Instance instance, Solution solution) {
     // get the max start time of all predecessors of j
     int max = 0;
-    for (int i = 0; i < pred.size(); ++i) {
-      int curr = solution.get(pred.get(i)) + instance.processingTime[pred.get(i)];
+    int end = instance.predecessorStart[jobNr + 1];
+    for (int i = instance.predecessorStart[jobNr]; i < end; ++i) {
+      int pred = instance.predecessorList[i];
+      int curr = solution.get(pred) + instance.processingTime[pred];
       if (curr > max) {
         max = curr;
       }
@@ -47,90 +37,178 @@ public class Solver {
   /**
    * Creates initial population by executing Earliest Start Schedule with different activity orders
    *
-   * @param instance
-   * @param numberOfJobs
+   * @param context
    * @param populationSize
-   * @param maxMakespan
+   * @param capacity maximal size the population may grow to
    * @return set of solutions each represented as an array of start times
    */
-  private static ArrayListEx<Solution> createInitialPopulation(Instance instance, int numberOfJobs, int populationSize, int maxMakespan) {
-    var population = new ArrayListEx<Solution>(populationSize);
+  static Population createInitialPopulation(Context context, int populationSize, int capacity) {
+    var population = new Population(context.instance, capacity);
+    addRandomSolutions(population, context, populationSize);
+    return population;
+  }
+
+  /**
+   * Create a population from the schedules of a checkpoint. Their start orders
+   * are repaired and decoded again, so the instance may have changed since the
+   * checkpoint was taken as long as the number of jobs is the same. Random
+   * solutions make up for missing or duplicate schedules.
+   *
+   * @param context
+   * @param checkpoint
+   * @param populationSize minimal number of solutions
+   * @param capacity
+   * @return population
+   * @throws Io.Error if the checkpoint is for another number of jobs
+   */
+  static Population restorePopulation(Context context, Checkpoint checkpoint, int populationSize, int capacity) {
+    final Instance instance = context.instance;
+    final int n = instance.n();
+    if (checkpoint.jobs != n) {
+      throw new Io.Error("checkpoint has " + checkpoint.jobs + " jobs, the instance " + n);
+    }
+
+    var population = new Population(instance, capacity);
+    final long[] keys = new long[n];
+    for (int[] startTimes : checkpoint.schedules) {
+      // order by start time, ties by job
+      for (int j = 0; j < n; ++j) {
+        keys[j] = (long) startTimes[j] << 32 | j;
+      }
+      Arrays.sort(keys);
+      int[] startOrder = new int[n];
+      for (int j = 0; j < n; ++j) {
+        startOrder[j] = (int) keys[j];
+      }
+
+      context.getPrecedenceRepair().repair(startOrder);
+      population.add(context.getDecoder().decode(startOrder, context));
+    }
+
+    addRandomSolutions(population, context, populationSize);
+    return population;
+  }
 
-    // create different start orders
-    for (int i = 0; i < populationSize; ++i) {
-      var startOrder = new ArrayListEx<Integer>(numberOfJobs);
+  static void addRandomSolutions(Population population, Context context, int populationSize) {
+    // create different start orders, duplicates are rejected by the population
+    int numberOfJobs = context.instance.n();
+    Random rng = context.getRandom();
+    for (int i = 0; i < 10 * populationSize && population.size() < populationSize; ++i) {
+      int[] startOrder = new int[numberOfJobs];
       for (int j = 0; j < numberOfJobs; ++j) {
-        startOrder.add(j);
+        startOrder[j] = j;
+      }
+      // NB: Same swap sequence as Collections.shuffle.
+      for (int j = numberOfJobs; j > 1; --j) {
+        int k = rng.nextInt(j);
+        int temp = startOrder[j - 1];
+        startOrder[j - 1] = startOrder[k];
+        startOrder[k] = temp;
       }
-      Collections.shuffle(startOrder, App.getRandom());
 
       // make sure the precedence constraints are satisfied
-      boolean inOrder = false;
-      while (!inOrder) {
-        inOrder = true;
-        for (int u = 0; u < numberOfJobs; ++u) {
-          for (int v = 0; v < instance.successors[u].length; ++v) {
-            int indexU = startOrder.indexOf(u);
-            int indexSucc = startOrder.indexOf(instance.successors[u][v]);
-            if (indexU > indexSucc) {
-              inOrder = false;
-              startOrder.set(indexU, instance.successors[u][v]);
-              startOrder.set(indexSucc, u);
-            }
-          }
-        }
-      }
-      population.add(ess(startOrder, instance, maxMakespan));
+      context.getPrecedenceRepair().repair(startOrder);
+      population.add(context.getDecoder().decode(startOrder, context));
     }
-    return population;
   }
 
+
   /**
    * Execute Earliest Start Schedule to get solution with start times
-   * from an activity list
+   * from an activity list. The solution keeps the list, it must not be
+   * modified afterwards.
    *
    * @param activityList
+   * @param context
    * @return
    */
-  public static Solution ess(ArrayListEx<Integer> activityList, Instance instance, int maxMakespan) {
-    Solution solution = new Solution(instance.n(), instance);
-
-    // initialize
-    int[][] resourcesForEachPeriod = new int[instance.r()][maxMakespan];
-    for (int j = 0; j < instance.r(); ++j) {
-      for (int p = 0; p < maxMakespan; ++p) {
-        resourcesForEachPeriod[j][p] = instance.resources[j];
-      }
-    }
+  public static Solution ess(int[] activityList, Context context) {
+    Instance instance = context.instance;
+    Metrics metrics = context.getMetrics();
+    long start = metrics != null ? System.nanoTime() : 0;
+    Solution solution = context.newSolution();
+    ResourceProfile profile = context.getResourceProfile();
 
     // ESS
     for (int job : activityList) {
       // schedule job by getting earliest start time if you only look at the predecessors
       int startTime = getEarliestStartTime(job, instance, solution);
-      solution.set(job, startTime);
 
-      // schedule job by looking at resourcesForEachPeriod to satisfy resource constraints at each time
-      int limit = startTime + instance.processingTime[job];
-      for (int t = startTime; t < limit; ++t) {
-        for (int k = 0; k < instance.r(); ++k) {
-          if (resourcesForEachPeriod[k][t] < instance.demands[job][k]) {
-            ++startTime;
-            solution.set(job, startTime);
-
-            // update loop variables
-            ++limit;
-            t = Math.max(startTime, t) - 1;
-            break;
-          }
-        }
-      }
+      // move it to the first gap in the profile which satisfies the resource constraints
+      startTime = profile.earliestStart(job, startTime);
+      solution.set(job, startTime);
 
       // update resources
-      for (int k = 0; k < instance.r(); ++k) {
-        for (int t = startTime; t < limit; ++t) {
-          resourcesForEachPeriod[k][t] -= instance.demands[job][k];
-        }
-      }
+      profile.add(job, startTime);
+    }
+    solution.setDecodeOrder(activityList);
+
+    if (metrics != null) {
+      metrics.decoded(System.nanoTime() - start);
+    }
+    return solution;
+  }
+
+  /**
+   * Decode an activity list with the decoder of the context, consulting its
+   * decode cache if it is enabled. The solution keeps the list.
+   *
+   * @param activityList
+   * @param context
+   * @return decoded solution
+   */
+  public static Solution decode(int[] activityList, Context context) {
+    return decode(activityList, context, context.getDecoder());
+  }
+
+  /**
+   * Decode an activity list with the given decoder, consulting the decode
+   * cache of the context if it is enabled.
+   *
+   * @param activityList
+   * @param context
+   * @param decoder
+   * @return decoded solution
+   */
+  static Solution decode(int[] activityList, Context context, Decoder decoder) {
+    DecodeCache cache = context.getDecodeCache();
+    if (cache == null) {
+      return decoder.decode(activityList, context);
+    }
+
+    long fingerprint = DecodeCache.fingerprint(activityList);
+    Solution solution = cache.get(activityList, fingerprint);
+    if (solution == null) {
+      solution = decoder.decode(activityList, context);
+      cache.put(fingerprint, solution);
+    }
+    return solution;
+  }
+
+
+  /**
+   * Decode a scratch list the caller goes on to modify, like decode(). A
+   * solution the decode cache keeps gets a copy of the list, any other
+   * solution refers to the scratch list: the caller either gives it a list of
+   * its own or detaches the list before recycling it.
+   *
+   * @param scratch
+   * @param context
+   * @param decoder
+   * @return decoded solution
+   */
+  static Solution decodeScratch(int[] scratch, Context context, Decoder decoder) {
+    DecodeCache cache = context.getDecodeCache();
+    if (cache == null) {
+      return decoder.decode(scratch, context);
+    }
+
+    long fingerprint = DecodeCache.fingerprint(scratch);
+    Solution solution = cache.get(scratch, fingerprint);
+    if (solution == null) {
+      solution = decoder.decode(scratch, context);
+      solution.setDecodeOrder(scratch.clone());
+      cache.put(fingerprint, solution);
     }
     return solution;
   }
@@ -143,30 +221,76 @@ public class Solver {
    * @return solution
    */
   public static int[] transformSolutionIntoActivityList(Solution solution) {
-    int[] activityList = new int[solution.size()];
-    var heap = new PriorityQueue<IntPair>(solution.size(), Comparator.comparingInt(i -> i.b));
-    for (int i = 0; i < solution.size(); ++i) {
-      heap.add(new IntPair(i, solution.get(i)));
-    }
-    for (int i = 0; i < solution.size(); ++i) {
-      activityList[i] = heap.remove().a;
-    }
-    return activityList;
+    // NB: Shared with the solution, callers must not modify it.
+    return solution.getActivityList();
   }
 
-  private static Solution doCrossover(ArrayListEx<Solution> population, Instance instance, int maxMakespan, int crossoverChoice) {
-    assert population.size() >= 2;
-    IntPair selection = TournamentSelection.getBest(population, instance);
+  private static Solution doCrossover(Population population, Context context, int crossoverChoice) {
+    assert population.size() >= 1;
+    Metrics metrics = context.getMetrics();
+    long start = metrics != null ? System.nanoTime() : 0;
+    IntPair selection = TournamentSelection.getBest(population, context);
     Solution father = population.get(selection.a);
     Solution mother = population.get(selection.b);
+    if (metrics != null) {
+      metrics.selected(System.nanoTime() - start);
+    }
+    return crossover(father, mother, context, crossoverChoice);
+  }
 
+  static Solution crossover(Solution father, Solution mother, Context context, int crossoverChoice) {
+    Metrics metrics = context.getMetrics();
+    long start = metrics != null ? System.nanoTime() : 0;
+    int[] child;
     if (crossoverChoice == 0) {
-      return onePointCO(father, mother, instance, maxMakespan);
+      child = onePointCO(father, mother, context);
     } else if (crossoverChoice == 1) {
-      return twoPointCO(father, mother, instance, maxMakespan);
+      child = twoPointCO(father, mother, context);
     } else {
-      return uniformCO(father, mother, instance, maxMakespan);
+      child = uniformCO(father, mother, context);
     }
+    if (metrics != null) {
+      metrics.crossedOver(System.nanoTime() - start);
+    }
+    return decode(child, context);
+  }
+
+  /**
+   * Add a child to the population.
+   *
+   * @param population
+   * @param child
+   * @param metrics    metrics of the run, may be null
+   * @return false if the child was rejected as a duplicate
+   */
+  static boolean insert(Population population, Solution child, Metrics metrics) {
+    return offer(population, child, metrics) != child;
+  }
+
+  /**
+   * Add a child to the population and recycle the solution left over.
+   *
+   * @param population
+   * @param child      child created by the context
+   * @param context    context that recycles the evicted or rejected solution
+   * @return false if the child was rejected as a duplicate
+   */
+  static boolean insert(Population population, Solution child, Context context) {
+    Solution leftover = offer(population, child, context.getMetrics());
+    if (leftover != null) {
+      context.recycle(leftover);
+    }
+    return leftover != child;
+  }
+
+  private static Solution offer(Population population, Solution child, Metrics metrics) {
+    if (metrics == null) {
+      return population.offer(child);
+    }
+    long start = System.nanoTime();
+    Solution leftover = population.offer(child);
+    metrics.inserted(leftover != child, System.nanoTime() - start);
+    return leftover;
   }
 
   /**
@@ -174,173 +298,103 @@ public class Solver {
    *
    * @param father (solution)
    * @param mother (solution)
-   * @return child created by crossover
+   * @return activity list of the child created by crossover
    */
-  private static Solution onePointCO(Solution father, Solution mother, Instance instance, int maxMakespan) {
+  static int[] onePointCO(Solution father, Solution mother, Context context) {
+    Instance instance = context.instance;
     int[] fatherActivityList = transformSolutionIntoActivityList(father);
     int[] motherActivityList = transformSolutionIntoActivityList(mother);
 
-    Random rand = App.getRandom();
+    Random rand = context.getRandom();
     int crossoverPoint = rand.nextInt(instance.n());
-    var child = new ArrayListEx<Integer>(instance.n());
-    var childCache = new HashSet<Integer>(crossoverPoint);
+    int[] child = context.newActivityList();
+    int childSize = 0;
+    JobSet childCache = context.getJobSet();
 
     for (int i = 0; i < crossoverPoint; ++i) {
       int value = fatherActivityList[i];
-      child.add(value);
+      child[childSize++] = value;
       childCache.add(value);
     }
     for (int i = 0; i < instance.n(); ++i) {
       if (!childCache.contains(motherActivityList[i])) {
         int value = motherActivityList[i];
-        child.add(value);
+        child[childSize++] = value;
         childCache.add(value);
       }
     }
-    return ess(child, instance, maxMakespan);
+    return child;
   }
 
-  private static Solution twoPointCO(Solution father, Solution mother, Instance instance, int maxMakespan) {
+  static int[] twoPointCO(Solution father, Solution mother, Context context) {
+    Instance instance = context.instance;
     int[] fatherActivityList = transformSolutionIntoActivityList(father);
     int[] motherActivityList = transformSolutionIntoActivityList(mother);
 
-    Random rand = App.getRandom();
+    Random rand = context.getRandom();
     int firstPoint = rand.nextInt(instance.n() - 1);
     int secondPoint = rand.nextInt(instance.n() - firstPoint + 1) + firstPoint;
-    var child = new ArrayListEx<Integer>(instance.n());
-    var childCache = new HashSet<Integer>(instance.n());
-    int magicNumber = instance.n() + 10;
+    int[] child = context.newActivityList();
+    JobSet childCache = context.getJobSet();
 
     for (int i = 0; i < firstPoint; ++i) {
-      child.add(motherActivityList[i]);
+      child[i] = motherActivityList[i];
       childCache.add(motherActivityList[i]);
     }
-    for (int i = firstPoint; i < secondPoint; ++i) {
-      // fill with not used job number
-      child.add(magicNumber);
-    }
     for (int i = secondPoint; i < instance.n(); ++i) {
-      child.add(motherActivityList[i]);
+      child[i] = motherActivityList[i];
       childCache.add(motherActivityList[i]);
     }
 
-    for (int i = firstPoint; i < secondPoint; ++i) {
-      for (int j = 0; j < instance.n(); ++j) {
-        if (!childCache.contains(fatherActivityList[j])) {
-          childCache.remove(child.get(i));
-
-          int value = fatherActivityList[j];
-          child.set(i, value);
-          childCache.add(value);
-        }
+    // fill the gap with the jobs missing from the mother's part, taken from
+    // the back of the father's list
+    int gapIndex = firstPoint;
+    for (int j = instance.n() - 1; j >= 0 && gapIndex < secondPoint; --j) {
+      int value = fatherActivityList[j];
+      if (!childCache.contains(value)) {
+        child[gapIndex++] = value;
+        childCache.add(value);
       }
     }
 
     // make sure the precedence constraints are met
-    boolean inOrder = false;
-    while (!inOrder) {
-      inOrder = true;
-      for (int u = 0; u < instance.n(); ++u) {
-        int len = instance.successors[u].length;
-        for (int v = 0; v < len; ++v) {
-          // NB: Manually search both indices.
-          int indexU = -1;
-          int indexSucc = -1;
-          int succVal = instance.successors[u][v];
-          for (int i = 0; i < child.size(); ++i) {
-            int val = child.get(i);
-            if (val == u) {
-              indexU = i;
-              break;
-            } else if (val == succVal) {
-              indexSucc = i;
-            }
-          }
-
-          if (indexSucc != -1) {
-            assert indexU != -1 && indexU > indexSucc;
-            inOrder = false;
-            child.set(indexU, succVal);
-            child.set(indexSucc, u);
-          }
-//          // Original code:
-//          int indexU = child.indexOf(u);
-//          int indexSucc = child.indexOf(instance.successors[u][v]);
-//          if (indexU > indexSucc) {
-//            inOrder = false;
-//            child.set(indexU, instance.successors[u][v]);
-//            child.set(indexSucc, u);
-//          }
-        }
-      }
-    }
-    return ess(child, instance, maxMakespan);
+    context.getPrecedenceRepair().repair(child);
+    return child;
   }
 
-  private static Solution uniformCO(Solution father, Solution mother, Instance instance, int maxMakespan) {
+  static int[] uniformCO(Solution father, Solution mother, Context context) {
+    Instance instance = context.instance;
     int[] fatherActivityList = transformSolutionIntoActivityList(father);
     int[] motherActivityList = transformSolutionIntoActivityList(mother);
 
-    Random rand = App.getRandom();
-    var child = new ArrayListEx<Integer>(instance.n());
-    var childCache = new HashSet<Integer>(instance.n());
+    Random rand = context.getRandom();
+    int[] child = context.newActivityList();
+    int childSize = 0;
+    JobSet childCache = context.getJobSet();
 
+    // NB: Every job in front of a cursor is already part of the child.
+    int fatherIndex = 0;
+    int motherIndex = 0;
     for (int i = 0; i < instance.n(); ++i) {
       if (rand.nextBoolean()) {
-        for (int j = 0; j < instance.n(); ++j) {
-          if (!childCache.contains(fatherActivityList[j])) {
-            int value = fatherActivityList[j];
-            child.add(value);
+        for (; fatherIndex < instance.n(); ++fatherIndex) {
+          int value = fatherActivityList[fatherIndex];
+          if (!childCache.contains(value)) {
+            child[childSize++] = value;
             childCache.add(value);
           }
         }
       } else {
-        for (int j = 0; j < instance.n(); ++j) {
-          if (!childCache.contains(motherActivityList[j])) {
-            int value = motherActivityList[j];
-            child.add(value);
+        for (; motherIndex < instance.n(); ++motherIndex) {
+          int value = motherActivityList[motherIndex];
+          if (!childCache.contains(value)) {
+            child[childSize++] = value;
             childCache.add(value);
           }
         }
       }
     }
-    return ess(child, instance, maxMakespan);
-  }
-
-  /**
-   * Remove a set of solutions inline.
-   *
-   * @param population
-   * @return selection
-   */
-  private static void selection(ArrayListEx<Solution> population) {
-    population.sort((sol1, sol2) -> {
-      int makespanSol1 = sol1.getMakespan();
-      int makespanSol2 = sol2.getMakespan();
-      return makespanSol2 - makespanSol1;
-    });
-
-    // Keep elitist solutions
-    int upperBound = population.size() / 2;
-    population.removeRange(0, upperBound);
-
-    // Remove duplicates
-    Random rng = App.getRandom();
-    var cache = new HashSet<Integer>();
-    for (int i = 0; i < population.size(); ++i) {
-      int h  = Arrays.hashCode(population.get(i).getDataUnsafe());
-      if (cache.contains(h)) {
-        if (population.size() > 2 && rng.nextDouble() > 0.2) {
-          population.remove(i);
-          --i;
-        }
-      } else {
-        cache.add(h);
-      }
-    }
-
-    // Redistribute
-    Collections.shuffle(population, rng);
+    return child;
   }
 
   /**
@@ -352,34 +406,36 @@ public class Solver {
    * @return
    */
   public static boolean checkSolution(Solution solution, Instance instance) {
-    int numberOfJobs = instance.n();
-    int solutionMakespan = solution.getMakespan();
+    return checkSolution(solution, instance, new ResourceProfile(instance));
+  }
 
-    // initialize
-    int[][] resourcesForEachPeriod = new int[instance.r()][solutionMakespan];
-    for (int j = 0; j < instance.r(); ++j) {
-      for (int p = 0; p < solutionMakespan; ++p) {
-        resourcesForEachPeriod[j][p] = instance.resources[j];
-      }
-    }
+  /**
+   * Check a solution with the scratch profile of the context.
+   *
+   * @param solution
+   * @param context
+   * @return true if the solution is feasible
+   */
+  static boolean checkSolution(Solution solution, Context context) {
+    return checkSolution(solution, context.instance, context.getResourceProfile());
+  }
 
-    // sub all demands in the solution and check resource constraints
+  private static boolean checkSolution(Solution solution, Instance instance, ResourceProfile profile) {
+    int numberOfJobs = instance.n();
+
+    // add all demands in the solution and check resource constraints
     for (int i = 0; i < numberOfJobs; ++i) {
-      int limit = solution.get(i) + instance.processingTime[i];
-      for (int j = solution.get(i); j < limit; ++j) {
-        for (int k = 0; k < instance.r(); ++k) {
-          resourcesForEachPeriod[k][j] -= instance.demands[i][k];
-          if (resourcesForEachPeriod[k][j] < 0) {
-            return false;
-          }
-        }
+      if (!profile.fits(i, solution.get(i))) {
+        return false;
       }
+      profile.add(i, solution.get(i));
     }
 
     // check successor constraints
     for (int i = 0; i < numberOfJobs; ++i) {
-      for (int j = 0; j < instance.successors[i].length; ++j) {
-        if (solution.get(i) + instance.processingTime[i] > solution.get(instance.successors[i][j])) {
+      int end = instance.successorStart[i + 1];
+      for (int j = instance.successorStart[i]; j < end; ++j) {
+        if (solution.get(i) + instance.processingTime[i] > solution.get(instance.successorList[j])) {
           return false;
         }
       }
@@ -387,73 +443,294 @@ public class Solver {
     return true;
   }
 
-  private static Solution pickBestSolution(ArrayListEx<Solution> population) {
-    Solution bestSolution = population.get(0);
-    int bestFitness = bestSolution.getMakespan();
-    for (int i = 1; i < population.size(); ++i) {
-      int currFitness = population.get(i).getMakespan();
-      if (currFitness < bestFitness) {
-        bestSolution = population.get(i);
-        bestFitness = currFitness;
-      }
+  /**
+   * Execute one generation on the population: crossover and mutation. The
+   * population evicts its worst members itself.
+   *
+   * @param population
+   * @param context
+   * @return best makespan of the children of this generation
+   */
+  static int evolve(Population population, Context context) {
+    Random rng = context.getRandom();
+
+    // Crossover
+    Solution child = doCrossover(population, context, 1);
+    int best = Integer.MAX_VALUE;
+
+    if (rng.nextDouble() > 1 - context.options.uniformCrossoverRate) {
+      Solution child2 = doCrossover(population, context, 2);
+      // NB: A child may be recycled as soon as it is inserted.
+      best = child2.getMakespan();
+      insert(population, child2, context);
     }
-    return bestSolution;
+
+    // Mutate
+    Solution mutated = RandomMutation.mutate(child, context);
+    if (mutated != child) {
+      context.recycle(child);
+    }
+    best = Math.min(best, mutated.getMakespan());
+    insert(population, mutated, context);
+
+    return best;
   }
 
-  public static void main(String[] args) {
-    if (args.length != 4) {
-      System.out.println("usage: java Solver <instance-path> <solution-path> <time-limit> <seed>");
-      return;
+  /**
+   * Execute one generation of the batch mode: batchSize parent pairs are drawn
+   * from the population, the children are created in parallel and added in the
+   * order of their parents. Every child is created on its own worker context,
+   * whose generator is seeded from the generator of the calling context, so
+   * the result does not depend on the scheduling of the workers.
+   *
+   * @param population
+   * @param context
+   * @param batchSize number of children
+   * @return best makespan of the children of this generation
+   */
+  static int evolveBatch(Population population, Context context, int batchSize) {
+    Random rng = context.getRandom();
+    Metrics metrics = context.getMetrics();
+    Context[] workers = context.getWorkers(batchSize);
+
+    var tasks = new ArrayList<Callable<Solution>>(batchSize);
+    for (int i = 0; i < batchSize; ++i) {
+      long start = metrics != null ? System.nanoTime() : 0;
+      IntPair selection = TournamentSelection.getBest(population, context);
+      Solution father = population.get(selection.a);
+      Solution mother = population.get(selection.b);
+      if (metrics != null) {
+        metrics.selected(System.nanoTime() - start);
+      }
+      int crossoverChoice = rng.nextDouble() > 1 - context.options.uniformCrossoverRate ? 2 : 1;
+      long seed = rng.nextLong();
+      Context worker = workers[i];
+
+      tasks.add(() -> {
+        worker.getRandom().setSeed(seed);
+        Solution child = crossover(father, mother, worker, crossoverChoice);
+        if (crossoverChoice == 1) {
+          Solution mutated = RandomMutation.mutate(child, worker);
+          if (mutated != child) {
+            worker.recycle(child);
+          }
+          child = mutated;
+        }
+        return child;
+      });
     }
 
-    final String path = args[0];
-    final Instance instance = Io.readInstance(Paths.get(path));
+    int best = Integer.MAX_VALUE;
+    try {
+      List<Future<Solution>> children = ForkJoinPool.commonPool().invokeAll(tasks);
+      for (int i = 0; i < batchSize; ++i) {
+        Solution child = children.get(i).get();
+        best = Math.min(best, child.getMakespan());
+        // the worker of the child gets the leftover, the workers are idle now
+        insert(population, child, workers[i]);
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new RuntimeException(e);
+    } catch (ExecutionException e) {
+      throw new RuntimeException(e.getCause());
+    }
 
-    final long seed = Long.parseLong(args[3]);
-    final int sizeOfInitialPop = 30;
-    final int eliminationThreshold = 10 * sizeOfInitialPop;
-    final long timeLimit = Long.parseLong(args[2]) * 1000;
-    final long startTime = System.currentTimeMillis();
-    App.init(seed);
+    return best;
+  }
 
-    int maxMakespan = 0;
-    for (int i = 0; i < instance.n(); ++i) {
-      maxMakespan += instance.processingTime[i];
+  /**
+   * Apply the forward-backward improvement to an elite picked by tournament.
+   * The justified schedule is added to the population if it is shorter.
+   *
+   * @param population
+   * @param context
+   * @return makespan of the justified schedule
+   */
+  static int justify(Population population, Context context) {
+    Solution elite = population.get(TournamentSelection.getBest(population, context).a);
+    Solution justified = Justification.improve(elite, context);
+    int makespan = justified.getMakespan();
+    if (makespan < elite.getMakespan()) {
+      insert(population, justified, context);
+    } else {
+      context.recycle(justified);
     }
+    return makespan;
+  }
 
-    // int debugIterations = 0; // #DEBUG
+  /**
+   * Execute one generation in the mode selected by the options.
+   *
+   * @param population
+   * @param context
+   * @param generation number of generations executed before on this population
+   * @return best makespan of the children of this generation
+   */
+  static int nextGeneration(Population population, Context context, long generation) {
+    Options options = context.options;
+    Metrics metrics = context.getMetrics();
+    if (metrics != null) {
+      metrics.generations.increment();
+    }
 
-    Random rng = App.getRandom();
-    ArrayListEx<Solution> population = createInitialPopulation(instance, instance.n(), sizeOfInitialPop, maxMakespan);
+    int best;
+    if (options.batchSize > 0) {
+      best = evolveBatch(population, context, options.batchSize);
+    } else {
+      best = evolve(population, context);
+    }
 
-    // execute as long as the time limit is not reached
-    while ((System.currentTimeMillis() - startTime) <= timeLimit) {
-      // Crossover
-      Solution child = doCrossover(population, instance, maxMakespan, 1);
+    if (options.justifyInterval > 0 && (generation + 1) % options.justifyInterval == 0) {
+      best = Math.min(best, justify(population, context));
+    }
+    return best;
+  }
 
-      if (rng.nextDouble() > 0.9) {
-        Solution child2 = doCrossover(population, instance, maxMakespan, 2);
-        population.add(child2);
+  /**
+   * Solve the instance on a new thread.
+   *
+   * @param instance
+   * @param options
+   * @param listener receives every improved incumbent, may be null
+   * @return handle to cancel the run, move its deadline or wait for its result
+   */
+  public static SolverHandle solve(Instance instance, Options options, SolverHandle.Listener listener) {
+    final SolverHandle handle = new SolverHandle(options, listener);
+    final Thread thread = new Thread(() -> {
+      try {
+        handle.complete(run(instance, options, handle));
+      } catch (Throwable e) {
+        handle.fail(e);
       }
+    }, "solver");
+    thread.start();
+    return handle;
+  }
 
-      // Mutate
-      child = RandomMutation.mutate(child, instance, maxMakespan);
-      population.add(child);
+  /**
+   * Solve the instance with the given options until the time limit is reached
+   * or the best makespan meets the lower bound of the instance.
+   * Runs on the calling thread.
+   *
+   * @param instance
+   * @param options
+   * @return best solution and statistics of the run
+   */
+  public static Result run(Instance instance, Options options) {
+    return run(instance, options, new SolverHandle(options, null));
+  }
 
-      // Elimination (Selection)
-      if (population.size() > eliminationThreshold) {
-        selection(population);
+  /**
+   * Solve the instance on the calling thread until the handle is stopped
+   * or the best makespan meets the lower bound of the instance.
+   *
+   * @param instance
+   * @param options
+   * @param handle   controls the run and receives its incumbents
+   * @return best solution and statistics of the run
+   */
+  public static Result run(Instance instance, Options options, SolverHandle handle) {
+    final int lowerBound = InstanceAnalysis.lowerBound(instance);
+    final Metrics metrics = options.metricsPath == null ? null
+        : new Metrics(Paths.get(options.metricsPath), handle.getStartTime(), options.metricsInterval);
+    try {
+      if (options.islands > 1) {
+        return new IslandModel(instance, options).solve(handle, lowerBound, metrics);
       }
+      return run(instance, options, handle, lowerBound, metrics);
+    } finally {
+      if (metrics != null) {
+        metrics.close();
+      }
+    }
+  }
 
-      // ++debugIterations; // #DEBUG
+  private static Result run(Instance instance, Options options, SolverHandle handle, int lowerBound,
+      Metrics metrics) {
+    final long startTime = handle.getStartTime();
+    DecodeCache.Stats cacheStats = options.decodeCacheSize > 0 ? new DecodeCache.Stats() : null;
+    final Context context = new Context(instance, options, options.seed, metrics, cacheStats);
+
+    // a resumed run continues with the random numbers and generation count of
+    // the checkpoint, a warm start only reuses its schedules
+    final String restorePath = options.resumePath != null ? options.resumePath : options.warmStartPath;
+    final Checkpoint restored = restorePath != null ? Checkpoint.read(Paths.get(restorePath)) : null;
+    long generations = 0;
+    if (options.resumePath != null) {
+      context.setRandom(restored.getRandom());
+      generations = restored.generation;
+    }
+    Population population = restored != null
+        ? restorePopulation(context, restored, options.initialPopulation, options.populationCapacity)
+        : createInitialPopulation(context, options.initialPopulation, options.populationCapacity);
+    int bestMakespan = population.best().getMakespan();
+    long timeToBest = System.currentTimeMillis() - startTime;
+    final CheckpointWriter checkpoints = options.checkpointPath != null
+        ? new CheckpointWriter(Paths.get(options.checkpointPath))
+        : null;
+    long lastCheckpoint = startTime;
+    final Stagnation stagnation = new Stagnation(context, generations);
+    handle.improved(population.best());
+    if (metrics != null) {
+      metrics.improved(bestMakespan);
     }
 
-    Solution bestSolution = pickBestSolution(population);
-    // System.out.println("Valid: " + checkSolution(bestSolution, instance)); // #DEBUG
-    System.out.println("Makespan: " + bestSolution.getMakespan());
+    // execute until the run is stopped or the best solution is provably optimal
+    while (bestMakespan > lowerBound && !handle.isStopped(generations)) {
+      int makespan = nextGeneration(population, context, generations);
+      ++generations;
+      if (makespan < bestMakespan) {
+        bestMakespan = makespan;
+        timeToBest = System.currentTimeMillis() - startTime;
+        handle.improved(population.best());
+        if (metrics != null) {
+          metrics.improved(bestMakespan);
+        }
+      }
+      stagnation.update(population, generations);
+      if (metrics != null) {
+        metrics.report(population.size(), bestMakespan);
+      }
+      // NB: The snapshot is taken here, only writing it is left to the writer thread.
+      if (checkpoints != null && generations % options.checkInterval == 0 && checkpoints.isIdle()
+          && System.currentTimeMillis() - lastCheckpoint >= options.checkpointInterval) {
+        checkpoints.offer(Checkpoint.of(population, generations, context.getRandom()));
+        lastCheckpoint = System.currentTimeMillis();
+      }
+    }
+
+    if (metrics != null) {
+      metrics.finish(population.size(), bestMakespan);
+    }
+    if (checkpoints != null) {
+      checkpoints.finish(Checkpoint.of(population, generations, context.getRandom()));
+    }
+    return new Result(population.best(), generations, timeToBest, System.currentTimeMillis() - startTime,
+        lowerBound, cacheStats);
+  }
+
+  public static void main(String[] args) {
+    final Options options;
+    try {
+      options = Options.parse(args);
+    } catch (IllegalArgumentException e) {
+      System.out.println(Options.USAGE);
+      return;
+    }
+
+    final Instance instance = Io.readInstance(Paths.get(options.instancePath));
+    final Result result = run(instance, options);
+
+    // System.out.println("Valid: " + checkSolution(result.solution, instance)); // #DEBUG
+    System.out.println("Makespan: " + result.getMakespan());
+    System.out.printf("Lower bound: %d (gap %.2f%%)%n", result.lowerBound, 100 * result.getGap());
+    if (result.decodeCacheStats != null) {
+      System.out.println("Decode cache: " + result.decodeCacheStats);
+    }
 
-    // System.out.println("\nIterations: " + debugIterations); // #DEBUG
+    // System.out.println("\nIterations: " + result.generations); // #DEBUG
 
-    Io.writeSolution(bestSolution.getDataUnsafe(), Paths.get(args[1]));
+    Io.writeSolution(result.solution.getDataUnsafe(), Paths.get(options.solutionPath));
   }
 }
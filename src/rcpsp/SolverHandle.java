@@ -0,0 +1,127 @@
+package rcpsp;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Handle of a running solver.
+ * <p>
+ * The run can be cancelled or given a new deadline at any time, the best
+ * solution found so far is available while it is still running. The solver
+ * checks the cancel flag every generation and the clock every
+ * Options.checkInterval generations, islands only once per epoch.
+ */
+public class SolverHandle {
+
+  /**
+   * Receives every improved incumbent, called on the solving thread.
+   */
+  public interface Listener {
+    void improved(Solution incumbent, long elapsed);
+  }
+
+  private final long startTime;
+  private final int checkInterval;
+  private final Listener listener;
+  private final CompletableFuture<Result> result = new CompletableFuture<>();
+
+  private volatile long deadline;
+  private volatile boolean cancelled;
+  private volatile Solution incumbent;
+
+  /**
+   * Construct.
+   *
+   * @param options   run parameters, the deadline is the time limit from now on
+   * @param listener  receives improved incumbents, may be null
+   */
+  public SolverHandle(Options options, Listener listener) {
+    this.startTime = System.currentTimeMillis();
+    this.checkInterval = options.checkInterval;
+    this.listener = listener;
+    this.deadline = startTime + options.timeLimit;
+  }
+
+  /// Stops the run, get() then returns the best solution found so far.
+  public void cancel() {
+    cancelled = true;
+  }
+
+  public boolean isCancelled() {
+    return cancelled;
+  }
+
+  /**
+   * Move the deadline of the run.
+   *
+   * @param deadline end of the run as given by System.currentTimeMillis()
+   */
+  public void setDeadline(long deadline) {
+    this.deadline = deadline;
+  }
+
+  public long getDeadline() {
+    return deadline;
+  }
+
+  public long getStartTime() {
+    return startTime;
+  }
+
+  /**
+   * Returns the best solution found so far, null before the initial population
+   * has been created.
+   */
+  public Solution getIncumbent() {
+    return incumbent;
+  }
+
+  public boolean isDone() {
+    return result.isDone();
+  }
+
+  /**
+   * Wait for the end of the run.
+   *
+   * @return best solution and statistics of the run
+   * @throws ExecutionException   if the solver failed
+   * @throws InterruptedException if the waiting thread is interrupted
+   */
+  public Result get() throws InterruptedException, ExecutionException {
+    return result.get();
+  }
+
+  /**
+   * Returns true if the run is cancelled or, every checkInterval generations,
+   * if the deadline has passed.
+   *
+   * @param generation number of generations evolved so far
+   */
+  boolean isStopped(long generation) {
+    if (cancelled) {
+      return true;
+    }
+    return generation % checkInterval == 0 && isPastDeadline();
+  }
+
+  boolean isPastDeadline() {
+    return System.currentTimeMillis() > deadline;
+  }
+
+  void improved(Solution solution) {
+    // NB: A copy, the population recycles its members once they are evicted.
+    final Solution copy = solution.copy();
+    incumbent = copy;
+    if (listener != null) {
+      listener.improved(copy, System.currentTimeMillis() - startTime);
+    }
+  }
+
+  void complete(Result value) {
+    result.complete(value);
+  }
+
+  void fail(Throwable failure) {
+    result.completeExceptionally(failure);
+  }
+}
@@ -0,0 +1,149 @@
+package rcpsp;
+
+import java.util.Arrays;
+
+/**
+ * Detects a stagnating population and restarts it.
+ * <p>
+ * A population stagnates if its best makespan has not improved for
+ * Options.stagnationGenerations generations or if its diversity falls below
+ * Options.minDiversity. A restart keeps the Options.elites best members and
+ * refills the population with random immigrants up to its initial size, so
+ * the remaining time is spent on new regions of the search space instead of
+ * on a converged population.
+ */
+public class Stagnation {
+  private final Context context;
+  private int best = Integer.MAX_VALUE;
+  private long lastImprovement;
+
+  /**
+   * Construct.
+   *
+   * @param context    context of the population
+   * @param generation number of generations executed before on the population
+   */
+  public Stagnation(Context context, long generation) {
+    this.context = context;
+    this.lastImprovement = generation;
+  }
+
+  /**
+   * Track the best makespan of the population and restart it once it
+   * stagnates. Called after every generation, the diversity is only checked
+   * every Options.checkInterval generations.
+   *
+   * @param population population evolved by the context
+   * @param generation number of generations executed so far
+   * @return true if the population was restarted
+   */
+  public boolean update(Population population, long generation) {
+    final Options options = context.options;
+    if (options.stagnationGenerations == 0 && options.minDiversity == 0) {
+      return false;
+    }
+
+    final int makespan = population.best().getMakespan();
+    if (makespan < best) {
+      best = makespan;
+      lastImprovement = generation;
+      return false;
+    }
+    if (generation % options.checkInterval != 0) {
+      return false;
+    }
+
+    boolean stagnated = options.stagnationGenerations > 0
+        && generation - lastImprovement >= options.stagnationGenerations;
+    double diversity = Double.NaN;
+    if (!stagnated && options.minDiversity > 0) {
+      diversity = diversity(population, context);
+      stagnated = diversity < options.minDiversity;
+    }
+    if (!stagnated) {
+      return false;
+    }
+
+    restart(population);
+    lastImprovement = generation;
+    final Metrics metrics = context.getMetrics();
+    if (metrics != null) {
+      metrics.restarted(population.size(), makespan, diversity);
+    }
+    return true;
+  }
+
+  /**
+   * Keep the elites of the population and refill it with random immigrants,
+   * each joined by its forward-backward improvement.
+   *
+   * @param population population evolved by the context
+   */
+  void restart(Population population) {
+    final int elites = context.options.elites;
+    while (population.size() > elites) {
+      context.recycle(population.removeWorst());
+    }
+    Solver.addRandomSolutions(population, context, context.options.initialPopulation);
+
+    // NB: Random schedules are far behind the elites, justified ones less so.
+    final int size = population.size();
+    for (int slot = elites; slot < size; ++slot) {
+      Solver.insert(population, Justification.improve(population.get(slot), context), context);
+    }
+  }
+
+  /**
+   * Mean distance between the positions of a job in the activity lists of two
+   * members, over all jobs and pairs of members, relative to the number of
+   * jobs. It is about 1/3 for random permutations and 0 if all members share
+   * their list. Precedence feasible random lists of the j120 instances are at
+   * about 0.1, converged populations at about 0.02 to 0.03.
+   * <p>
+   * The positions of a job are counted in a histogram, which gives the sum of
+   * the distances over all pairs in O(n) per job.
+   *
+   * @param population population
+   * @param context    context of the population
+   * @return diversity between 0 and 1
+   */
+  public static double diversity(Population population, Context context) {
+    final int n = context.instance.n();
+    final int size = population.size();
+    if (size < 2 || n < 2) {
+      return 0.0;
+    }
+
+    // positions[m * n + job] is the position of the job in the list of member m
+    final int[] positions = context.getIntBuffer(0, size * n);
+    for (int m = 0; m < size; ++m) {
+      final int[] list = population.get(m).getActivityList();
+      for (int position = 0; position < n; ++position) {
+        positions[m * n + list[position]] = position;
+      }
+    }
+
+    final int[] counts = context.getIntBuffer(1, n);
+    long total = 0;
+    for (int job = 0; job < n; ++job) {
+      Arrays.fill(counts, 0, n, 0);
+      for (int m = 0; m < size; ++m) {
+        ++counts[positions[m * n + job]];
+      }
+      // every position p is at distance p - q of the positions q < p seen so far
+      long seen = 0;
+      long seenSum = 0;
+      for (int position = 0; position < n; ++position) {
+        final long count = counts[position];
+        if (count > 0) {
+          total += count * (position * seen - seenSum);
+          seen += count;
+          seenSum += count * position;
+        }
+      }
+    }
+
+    final double pairs = (double) size * (size - 1) / 2;
+    return total / (pairs * n) / n;
+  }
+}
@@ -1,37 +1,73 @@
 package rcpsp;
 
-import java.util.ArrayList;
-import java.util.HashSet;
 import java.util.Random;
-import java.util.Set;
 
 public class TournamentSelection {
-  private static final int TournamentBestSize = 4;
   private static final int TournamentWorstSize = 3;
 
-  /// Select n random indices (Floyd's random sampling algorithm).
-  private static Set<Integer> randomSample(int totalSize, int n) {
-    Random rng = App.getRandom();
-    var sample = new HashSet<Integer>(n);
-    for (int i = totalSize - n; i < totalSize; ++i) {
+  /// Scratch buffer of the context holding the sample.
+  private static final int SampleBuffer = 2;
+
+  /// Select n random indices (Floyd's random sampling algorithm) into the
+  /// first n elements of sample and return n. A population of at most n
+  /// members takes part in the tournament as a whole.
+  private static int randomSample(Random rng, int totalSize, int n, int[] sample) {
+    // NB: Duplicates are rejected, so a small instance may not fill the population.
+    if (totalSize <= n) {
+      for (int i = 0; i < totalSize; ++i) {
+        sample[i] = i;
+      }
+      return totalSize;
+    }
+
+    for (int count = 0, i = totalSize - n; i < totalSize; ++i, ++count) {
       int index = rng.nextInt(i);
-      if (sample.contains(index)) {
-        sample.add(i);
-      } else {
-        sample.add(index);
+      sample[count] = contains(sample, count, index) ? i : index;
+    }
+
+    // NB: Visit the indices in the iteration order of the HashSet<Integer>
+    // sampled into before, so ties are broken as ever: by hash bucket of a
+    // table sized for n elements, then by insertion order.
+    int tableSize = Integer.highestOneBit(Math.max(n - 1, 1)) << 1;
+    for (int size = 1; size <= n; ++size) {
+      if (size > (int) (tableSize * 0.75f)) {
+        tableSize <<= 1;
       }
     }
-    return sample;
+    final int mask = tableSize - 1;
+    for (int i = 1; i < n; ++i) {
+      int index = sample[i];
+      int bucket = (index ^ (index >>> 16)) & mask;
+      int j = i - 1;
+      for (; j >= 0 && ((sample[j] ^ (sample[j] >>> 16)) & mask) > bucket; --j) {
+        sample[j + 1] = sample[j];
+      }
+      sample[j + 1] = index;
+    }
+    return n;
+  }
+
+  private static boolean contains(int[] values, int count, int value) {
+    for (int i = 0; i < count; ++i) {
+      if (values[i] == value) {
+        return true;
+      }
+    }
+    return false;
   }
 
   /// Returns the best and second best solution based on a fixed tournament.
-  public static IntPair getBest(ArrayList<Solution> population, Instance instance) {
+  /// A population of one member returns it twice.
+  public static IntPair getBest(Population population, Context context) {
     int bestFitness = Integer.MAX_VALUE;
     int bestIndex = -1;
     int secondBestFitness = Integer.MAX_VALUE;
     int secondBestIndex = -1;
-    Set<Integer> indices = randomSample(population.size(), TournamentBestSize);
-    for (int index : indices) {
+    int n = context.options.tournamentSize;
+    int[] indices = context.getIntBuffer(SampleBuffer, n);
+    n = randomSample(context.getRandom(), population.size(), n, indices);
+    for (int i = 0; i < n; ++i) {
+      int index = indices[i];
       int fitness = population.get(index).getMakespan();
       if (fitness < bestFitness) {
         secondBestFitness = bestFitness;
@@ -43,15 +79,20 @@ public class TournamentSelection {
         secondBestIndex = index;
       }
     }
+    if (secondBestIndex == -1) {
+      secondBestIndex = bestIndex;
+    }
     return new IntPair(bestIndex, secondBestIndex);
   }
 
   /// Returns the worst solution based on a fixed tournament.
-  public static IntPair getWorst(ArrayList<Solution> population, Instance instance) {
+  public static IntPair getWorst(Population population, Context context) {
     int worstFitness = Integer.MIN_VALUE;
     int worstIndex = -1;
-    Set<Integer> indices = randomSample(population.size(), TournamentWorstSize);
-    for (int index : indices) {
+    int[] indices = context.getIntBuffer(SampleBuffer, TournamentWorstSize);
+    int n = randomSample(context.getRandom(), population.size(), TournamentWorstSize, indices);
+    for (int i = 0; i < n; ++i) {
+      int index = indices[i];
       int fitness =  population.get(index).getMakespan();
       if (fitness > worstFitness) {
         worstFitness = fitness;
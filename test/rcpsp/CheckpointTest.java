@@ -0,0 +1,54 @@
+package rcpsp;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * A resumed run starts from the population, generation and random numbers
+ * of its checkpoint.
+ */
+class CheckpointTest {
+
+  @Test
+  void resumeRoundTrip(@TempDir Path dir) {
+    final Context context = new Context(Io.readInstance(Paths.get("j30/J301_1.RCP")), 1);
+    final Population population = Solver.createInitialPopulation(context, 20, 20);
+    final Path path = dir.resolve("run.checkpoint");
+    Checkpoint.of(population, 42, context.getRandom()).write(path);
+
+    final Checkpoint checkpoint = Checkpoint.read(path);
+    assertEquals(42, checkpoint.generation);
+    assertEquals(population.size(), checkpoint.schedules.length);
+    for (int i = 0; i < population.size(); ++i) {
+      assertArrayEquals(population.get(i).getDataUnsafe(), checkpoint.schedules[i]);
+    }
+    final Random random = checkpoint.getRandom();
+    for (int i = 0; i < 100; ++i) {
+      assertEquals(context.getRandom().nextLong(), random.nextLong());
+    }
+
+    final Context resumed = new Context(context.instance, 2);
+    resumed.setRandom(checkpoint.getRandom());
+    final Population restored = Solver.restorePopulation(resumed, checkpoint, 20, 20);
+    assertEquals(population.get(0).getMakespan(), restored.get(0).getMakespan());
+  }
+
+  @Test
+  void rejectsSchedulesBeyondTheFile(@TempDir Path dir) throws Exception {
+    final ByteBuffer header = ByteBuffer.allocate(4 * Integer.BYTES + 2 * Long.BYTES);
+    header.putInt(0x52435043).putInt(2).putInt(1 << 14).putLong(0).putLong(0).putInt(1 << 20);
+    final Path path = dir.resolve("huge.checkpoint");
+    Files.write(path, header.array());
+    assertThrows(Io.Error.class, () -> Checkpoint.read(path));
+  }
+}
@@ -0,0 +1,188 @@
+package rcpsp;
+
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * The primitive crossover operators create the same children as the boxed
+ * ones they replaced and allocate nothing per child.
+ */
+class CrossoverTest {
+  private static final String[] Instances = {"j30/J301_1.RCP", "j60/J6010_5.RCP", "j120/X10_7.RCP"};
+  private static final long Seed = 85838798;
+
+  @FunctionalInterface
+  private interface Operator {
+    int[] apply(Solution father, Solution mother, Context context);
+  }
+
+  @FunctionalInterface
+  private interface Reference {
+    int[] apply(int[] father, int[] mother, Instance instance, Random rng);
+  }
+
+  @Test
+  void onePointMatchesBoxed() {
+    assertMatches(Solver::onePointCO, CrossoverTest::boxedOnePoint);
+  }
+
+  @Test
+  void twoPointMatchesBoxed() {
+    assertMatches(Solver::twoPointCO, CrossoverTest::boxedTwoPoint);
+  }
+
+  @Test
+  void uniformMatchesBoxed() {
+    assertMatches(Solver::uniformCO, CrossoverTest::boxedUniform);
+  }
+
+  @Test
+  void crossoversDoNotAllocate() {
+    final com.sun.management.ThreadMXBean threads =
+        (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+    final Operator[] operators = {Solver::onePointCO, Solver::twoPointCO, Solver::uniformCO};
+    final int children = 10_000;
+
+    for (String path : Instances) {
+      final Context context = new Context(Io.readInstance(Paths.get(path)), Seed);
+      final Population population = Solver.createInitialPopulation(context, 30, 150);
+      final Solution father = population.get(0);
+      final Solution mother = population.get(1);
+
+      for (Operator operator : operators) {
+        // warmup, fills the pool and the activity lists of the parents
+        crossover(operator, father, mother, context, children);
+
+        final long threadId = Thread.currentThread().getId();
+        final long before = threads.getThreadAllocatedBytes(threadId);
+        crossover(operator, father, mother, context, children);
+        final long bytes = threads.getThreadAllocatedBytes(threadId) - before;
+
+        // NB: A single boxed job per child would take 16 bytes.
+        assertTrue(bytes < children, path + ": " + bytes + " bytes for " + children + " children");
+      }
+    }
+  }
+
+  private static void crossover(Operator operator, Solution father, Solution mother, Context context, int count) {
+    for (int i = 0; i < count; ++i) {
+      context.recycle(operator.apply(father, mother, context));
+    }
+  }
+
+  private static void assertMatches(Operator operator, Reference reference) {
+    for (String path : Instances) {
+      final Instance instance = Io.readInstance(Paths.get(path));
+      final Context context = new Context(instance, Seed);
+      final Population population = Solver.createInitialPopulation(context, 30, 150);
+      final Random rng = new Random(Seed);
+
+      for (int i = 0; i + 1 < population.size(); ++i) {
+        final Solution father = population.get(i);
+        final Solution mother = population.get(i + 1);
+        for (int k = 0; k < 20; ++k) {
+          final long seed = rng.nextLong();
+          final int[] expected = reference.apply(father.getActivityList(), mother.getActivityList(), instance,
+              new Random(seed));
+          context.getRandom().setSeed(seed);
+          assertArrayEquals(expected, operator.apply(father, mother, context), path);
+        }
+      }
+    }
+  }
+
+  // The operators as they were before, on boxed lists and hash sets.
+
+  private static int[] boxedOnePoint(int[] father, int[] mother, Instance instance, Random rand) {
+    int crossoverPoint = rand.nextInt(instance.n());
+    var child = new ArrayList<Integer>(instance.n());
+    var childCache = new HashSet<Integer>(crossoverPoint);
+
+    for (int i = 0; i < crossoverPoint; ++i) {
+      int value = father[i];
+      child.add(value);
+      childCache.add(value);
+    }
+    for (int i = 0; i < instance.n(); ++i) {
+      if (!childCache.contains(mother[i])) {
+        int value = mother[i];
+        child.add(value);
+        childCache.add(value);
+      }
+    }
+    return unbox(child);
+  }
+
+  private static int[] boxedTwoPoint(int[] father, int[] mother, Instance instance, Random rand) {
+    int firstPoint = rand.nextInt(instance.n() - 1);
+    int secondPoint = rand.nextInt(instance.n() - firstPoint + 1) + firstPoint;
+    var child = new ArrayList<Integer>(instance.n());
+    var childCache = new HashSet<Integer>(instance.n());
+    int magicNumber = instance.n() + 10;
+
+    for (int i = 0; i < firstPoint; ++i) {
+      child.add(mother[i]);
+      childCache.add(mother[i]);
+    }
+    for (int i = firstPoint; i < secondPoint; ++i) {
+      // fill with not used job number
+      child.add(magicNumber);
+    }
+    for (int i = secondPoint; i < instance.n(); ++i) {
+      child.add(mother[i]);
+      childCache.add(mother[i]);
+    }
+
+    for (int i = firstPoint; i < secondPoint; ++i) {
+      for (int j = 0; j < instance.n(); ++j) {
+        if (!childCache.contains(father[j])) {
+          childCache.remove(child.get(i));
+
+          int value = father[j];
+          child.set(i, value);
+          childCache.add(value);
+        }
+      }
+    }
+
+    // NB: The swap-based repair of the boxed version has been replaced by
+    // PrecedenceRepair on purpose, its lists differ.
+    final int[] repaired = unbox(child);
+    new PrecedenceRepair(instance).repair(repaired);
+    return repaired;
+  }
+
+  private static int[] boxedUniform(int[] father, int[] mother, Instance instance, Random rand) {
+    var child = new ArrayList<Integer>(instance.n());
+    var childCache = new HashSet<Integer>(instance.n());
+
+    for (int i = 0; i < instance.n(); ++i) {
+      int[] parent = rand.nextBoolean() ? father : mother;
+      for (int j = 0; j < instance.n(); ++j) {
+        if (!childCache.contains(parent[j])) {
+          int value = parent[j];
+          child.add(value);
+          childCache.add(value);
+        }
+      }
+    }
+    return unbox(child);
+  }
+
+  private static int[] unbox(List<Integer> list) {
+    final int[] array = new int[list.size()];
+    for (int i = 0; i < array.length; ++i) {
+      array[i] = list.get(i);
+    }
+    return array;
+  }
+}
@@ -0,0 +1,53 @@
+package rcpsp;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Preprocessing of the precedence graph and the bounds derived from it.
+ */
+class InstanceAnalysisTest {
+  private static final String[] Directories = {"j30", "j60", "j120"};
+
+  @Test
+  void criticalPathFromWindowsMatchesForwardPass() {
+    for (String directory : Directories) {
+      for (Path path : Corpus.list(Paths.get(directory))) {
+        final Instance instance = Io.readInstance(path);
+        final int[] est = InstanceAnalysis.earliestStartTimes(instance);
+        int expected = 0;
+        for (int j = 0; j < instance.n(); ++j) {
+          expected = Math.max(expected, est[j] + instance.processingTime[j]);
+        }
+        assertEquals(expected, InstanceAnalysis.criticalPathBound(instance), path.toString());
+      }
+    }
+  }
+
+  @Test
+  void rejectsClosureBeyondMaxJobs() {
+    final Instance instance = new Instance(InstanceAnalysis.MaxJobs + 1, 0);
+    for (int j = 0; j < instance.n(); ++j) {
+      instance.successors[j] = new int[0];
+    }
+    instance.buildIndex();
+    assertThrows(IllegalArgumentException.class, () -> InstanceAnalysis.preprocess(instance));
+  }
+
+  @Test
+  void preprocessesMaxJobs() {
+    final Instance instance = new Instance(InstanceAnalysis.MaxJobs, 0);
+    for (int j = 0; j < instance.n(); ++j) {
+      instance.successors[j] = j + 1 < instance.n() ? new int[] {j + 1} : new int[0];
+    }
+    instance.buildIndex();
+    InstanceAnalysis.preprocess(instance);
+    assertTrue(instance.mustPrecede(0, instance.n() - 1));
+  }
+}
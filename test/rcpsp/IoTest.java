@@ -0,0 +1,78 @@
+package rcpsp;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Parsing of untrusted instances: sizes are checked before allocating.
+ */
+class IoTest {
+  private static Instance parse(String text) {
+    return Io.parseInstance(text.getBytes(StandardCharsets.US_ASCII), Paths.get("test"));
+  }
+
+  @Test
+  void parsesInstance() {
+    final Instance instance = parse("3 1\n4\n1 2 1 2\n2 3 1 3\n1 1 0\n");
+    assertEquals(3, instance.n());
+    assertEquals(1, instance.r());
+    assertEquals(2, instance.processingTime[1]);
+  }
+
+  @Test
+  void rejectsTooManyJobs() {
+    assertThrows(Io.Error.class, () -> parse("60000 60000"));
+  }
+
+  @Test
+  void rejectsSizeBeyondBody() {
+    assertThrows(Io.Error.class, () -> parse("5000 60000"));
+    assertThrows(Io.Error.class, () -> parse("3 1\n4\n1 2 1 2\n"));
+  }
+
+  @Test
+  void rejectsMoreSuccessorsThanJobs() {
+    assertThrows(Io.Error.class, () -> parse("2 1 3 2 2 999999999 3 2 0"));
+  }
+
+  @Test
+  void rejectsJsonSizeBeyondBody() {
+    final StringBuilder json = new StringBuilder("{\"resources\":[");
+    for (int k = 0; k < 1000; ++k) {
+      json.append(k == 0 ? "1" : ",1");
+    }
+    json.append("],\"jobs\":[");
+    for (int j = 0; j < 1000; ++j) {
+      json.append(j == 0 ? "{}" : ",{}");
+    }
+    json.append("]}");
+    assertThrows(Io.Error.class, () -> Io.parseJsonInstance(json.toString(), "test"));
+  }
+
+  @Test
+  void rejectsDeepJson() {
+    assertThrows(Io.Error.class, () -> Io.parseJsonInstance("[".repeat(100_000), "test"));
+  }
+
+  @Test
+  void rejectsLongHorizon() {
+    final byte[] body = "2 1 3 2 2 0 1999999 2 0".getBytes(StandardCharsets.US_ASCII);
+    assertThrows(Io.Error.class, () -> Io.parseInstance(body, Paths.get("test")));
+    assertThrows(Io.Error.class, () -> Server.parseInstance(body, null));
+    assertThrows(Io.Error.class, () -> Io.parseJsonInstance(
+        "{\"resources\": [3], \"jobs\": [{\"duration\": 1999999, \"demands\": [2]}]}", "test"));
+  }
+
+  @Test
+  void rejectsDemandAboveCapacity() {
+    final byte[] body = "2 1 3 2 4 1 2 0 2 0".getBytes(StandardCharsets.US_ASCII);
+    assertThrows(Io.Error.class, () -> Io.parseInstance(body, Paths.get("test")));
+    assertThrows(Io.Error.class, () -> Io.parseJsonInstance(
+        "{\"resources\": [3], \"jobs\": [{\"duration\": 1, \"demands\": [4]}]}", "test"));
+  }
+}
@@ -0,0 +1,43 @@
+package rcpsp;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Double justification keeps schedules feasible whatever the numbering of
+ * the jobs.
+ */
+class JustificationTest {
+
+  @Test
+  void zeroDurationJobsNumberedAfterTheirSuccessors() {
+    // job 1 (2) -> job 4 (0) -> job 3 (0) -> job 2 (1), one resource unused
+    final Instance instance = Io.parseInstance(
+        "4 1 1  2 0 1 4  1 0 0  0 0 1 2  0 0 1 3".getBytes(StandardCharsets.US_ASCII), Paths.get("test"));
+    final Context context = new Context(instance, 1);
+
+    final int[] list = context.newActivityList();
+    System.arraycopy(new int[] {0, 3, 2, 1}, 0, list, 0, list.length);
+    final Solution solution = Solver.ess(list, context);
+    assertTrue(Solver.checkSolution(solution, instance));
+
+    final Solution justified = Justification.improve(solution, context);
+    assertTrue(Solver.checkSolution(justified, instance));
+    assertTrue(justified.getMakespan() <= solution.getMakespan());
+  }
+
+  @Test
+  void justifiedSchedulesAreFeasible() {
+    final Context context = new Context(Io.readInstance(Paths.get("j30/J301_1.RCP")), 1);
+    final Population population = Solver.createInitialPopulation(context, 30, 30);
+    for (int i = 0; i < population.size(); ++i) {
+      final Solution justified = Justification.improve(population.get(i), context);
+      assertTrue(Solver.checkSolution(justified, context.instance));
+      assertTrue(justified.getMakespan() <= population.get(i).getMakespan());
+    }
+  }
+}
@@ -0,0 +1,68 @@
+package rcpsp;
+
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+import java.nio.file.Paths;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Mutation attempts share one scratch list, accepted ones get a list of their own.
+ */
+class RandomMutationTest {
+  private static final String Path = "j120/X10_7.RCP";
+
+  private static Context context(int decodeCacheSize) {
+    final Options options = new Options();
+    options.mutationRate = 1.0;
+    options.decodeCacheSize = decodeCacheSize;
+    final DecodeCache.Stats stats = decodeCacheSize > 0 ? new DecodeCache.Stats() : null;
+    return new Context(Io.readInstance(Paths.get(Path)), options, 1, null, stats);
+  }
+
+  @Test
+  void mutantsKeepTheirLists() {
+    for (int decodeCacheSize : new int[] {0, 4096}) {
+      final Context context = context(decodeCacheSize);
+      final Population population = Solver.createInitialPopulation(context, 30, 150);
+      final Solution parent = population.get(0);
+
+      final Solution[] mutants = new Solution[50];
+      final int[][] lists = new int[mutants.length][];
+      for (int i = 0; i < mutants.length; ++i) {
+        mutants[i] = RandomMutation.mutate(parent, context);
+        lists[i] = mutants[i].getDecodeOrder().clone();
+      }
+      for (int i = 0; i < mutants.length; ++i) {
+        assertArrayEquals(lists[i], mutants[i].getDecodeOrder());
+        assertTrue(Solver.checkSolution(mutants[i], context.instance));
+      }
+    }
+  }
+
+  @Test
+  void attemptsDoNotAllocateWithDecodeCache() {
+    final com.sun.management.ThreadMXBean threads =
+        (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+    final Context context = context(4096);
+    final Population population = Solver.createInitialPopulation(context, 30, 150);
+    final Solution parent = population.get(0);
+    final int mutations = 10_000;
+
+    // warmup, fills the cache with the neighbours of the parent
+    for (int i = 0; i < mutations; ++i) {
+      RandomMutation.mutate(parent, context);
+    }
+    final long threadId = Thread.currentThread().getId();
+    final long before = threads.getThreadAllocatedBytes(threadId);
+    for (int i = 0; i < mutations; ++i) {
+      RandomMutation.mutate(parent, context);
+    }
+    final long bytes = threads.getThreadAllocatedBytes(threadId) - before;
+
+    // NB: A copy of the list per attempt would take 500 bytes.
+    assertTrue(bytes < 100L * mutations, bytes + " bytes for " + mutations + " mutations");
+  }
+}
@@ -0,0 +1,34 @@
+package rcpsp;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Paths;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+/**
+ * The activity list a solution carries next to its start times.
+ */
+class SolutionTest {
+
+  @Test
+  void recycledSolutionSortsItsNewSchedule() {
+    final Context context = new Context(Io.readInstance(Paths.get("j30/J301_1.RCP")), 1);
+    final Population population = Solver.createInitialPopulation(context, 2, 150);
+    final int[] first = population.get(0).getActivityList().clone();
+    final int[] second = population.get(1).getActivityList().clone();
+
+    final int[] list = context.newActivityList();
+    System.arraycopy(first, 0, list, 0, list.length);
+    final Solution solution = Solver.ess(list, context);
+    assertArrayEquals(first, solution.getActivityList());
+    context.recycle(solution);
+
+    final int[] other = context.newActivityList();
+    System.arraycopy(second, 0, other, 0, other.length);
+    final Solution reused = Solver.ess(other, context);
+    assertSame(solution, reused);
+    assertArrayEquals(second, reused.getActivityList());
+  }
+}
@@ -0,0 +1,51 @@
+package rcpsp;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Tournaments on populations smaller than the tournament.
+ */
+class TournamentSelectionTest {
+  /// Two independent jobs that cannot run in parallel: only two distinct schedules.
+  private static final String TwoJobs = "2 1\n3\n2 2 0\n3 2 0\n";
+
+  private static Instance twoJobs() {
+    return Io.parseInstance(TwoJobs.getBytes(StandardCharsets.US_ASCII), Paths.get("two-jobs"));
+  }
+
+  @Test
+  void singleMemberIsBothParents() {
+    final Context context = new Context(twoJobs(), 1);
+    final Population population = Solver.createInitialPopulation(context, 1, 150);
+    assertEquals(1, population.size());
+
+    final IntPair parents = TournamentSelection.getBest(population, context);
+    assertEquals(0, parents.a);
+    assertEquals(0, parents.b);
+    assertEquals(0, TournamentSelection.getWorst(population, context).a);
+  }
+
+  @Test
+  void smallPopulationTakesPartAsWhole() {
+    final Context context = new Context(twoJobs(), 1);
+    final Population population = Solver.createInitialPopulation(context, 30, 150);
+    assertEquals(2, population.size());
+
+    final IntPair parents = TournamentSelection.getBest(population, context);
+    final int best = population.get(0).getMakespan() <= population.get(1).getMakespan() ? 0 : 1;
+    assertEquals(best, parents.a);
+    assertEquals(1 - best, parents.b);
+  }
+
+  @Test
+  void solvesInstanceWithFewSchedules() {
+    final Options options = new Options();
+    options.timeLimit = 200;
+    assertEquals(5, Solver.run(twoJobs(), options).getMakespan());
+  }
+}